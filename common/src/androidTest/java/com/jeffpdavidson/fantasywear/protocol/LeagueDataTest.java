@@ -41,6 +41,21 @@ public class LeagueDataTest {
         Assert.assertNull(LeagueData.getTagIfMatches(Uri.parse("league/ACCOUNT/LEAGUE/EXTRA")));
     }
 
+    @Test
+    public void getAccountNameAndLeagueKeyForValidUri() {
+        // The wear device sends the path of the data item URI, without a scheme or host.
+        Uri uri = Uri.parse(URI.getPath());
+        Assert.assertEquals("ACCOUNT", LeagueData.getAccountName(uri));
+        Assert.assertEquals("LEAGUE", LeagueData.getLeagueKey(uri));
+    }
+
+    @Test
+    public void getAccountNameAndLeagueKeyForInvalidUri() {
+        Uri uri = Uri.parse("test/ACCOUNT/LEAGUE");
+        Assert.assertNull(LeagueData.getAccountName(uri));
+        Assert.assertNull(LeagueData.getLeagueKey(uri));
+    }
+
     @Test
     public void isActiveLeagueDataItemForActiveUri() {
         Mockito.when(mMockDataItem.getUri()).thenReturn(URI);
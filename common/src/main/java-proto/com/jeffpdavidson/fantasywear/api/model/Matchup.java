@@ -4,21 +4,40 @@ package com.jeffpdavidson.fantasywear.api.model;
 import com.squareup.wire.Message;
 import com.squareup.wire.ProtoField;
 
+import static com.squareup.wire.Message.Datatype.INT32;
+import static com.squareup.wire.Message.Datatype.STRING;
+
 public final class Matchup extends Message {
 
+  public static final Integer DEFAULT_WEEK = 0;
+  public static final String DEFAULT_WEEK_START = "";
+  public static final String DEFAULT_WEEK_END = "";
+
   @ProtoField(tag = 1)
   public final Team my_team;
 
   @ProtoField(tag = 2)
   public final Team opponent_team;
 
-  public Matchup(Team my_team, Team opponent_team) {
+  @ProtoField(tag = 3, type = INT32)
+  public final Integer week;
+
+  @ProtoField(tag = 4, type = STRING)
+  public final String week_start;
+
+  @ProtoField(tag = 5, type = STRING)
+  public final String week_end;
+
+  public Matchup(Team my_team, Team opponent_team, Integer week, String week_start, String week_end) {
     this.my_team = my_team;
     this.opponent_team = opponent_team;
+    this.week = week;
+    this.week_start = week_start;
+    this.week_end = week_end;
   }
 
   private Matchup(Builder builder) {
-    this(builder.my_team, builder.opponent_team);
+    this(builder.my_team, builder.opponent_team, builder.week, builder.week_start, builder.week_end);
     setBuilder(builder);
   }
 
@@ -28,7 +47,10 @@ public final class Matchup extends Message {
     if (!(other instanceof Matchup)) return false;
     Matchup o = (Matchup) other;
     return equals(my_team, o.my_team)
-        && equals(opponent_team, o.opponent_team);
+        && equals(opponent_team, o.opponent_team)
+        && equals(week, o.week)
+        && equals(week_start, o.week_start)
+        && equals(week_end, o.week_end);
   }
 
   @Override
@@ -37,6 +59,9 @@ public final class Matchup extends Message {
     if (result == 0) {
       result = my_team != null ? my_team.hashCode() : 0;
       result = result * 37 + (opponent_team != null ? opponent_team.hashCode() : 0);
+      result = result * 37 + (week != null ? week.hashCode() : 0);
+      result = result * 37 + (week_start != null ? week_start.hashCode() : 0);
+      result = result * 37 + (week_end != null ? week_end.hashCode() : 0);
       hashCode = result;
     }
     return result;
@@ -46,6 +71,9 @@ public final class Matchup extends Message {
 
     public Team my_team;
     public Team opponent_team;
+    public Integer week;
+    public String week_start;
+    public String week_end;
 
     public Builder() {
     }
@@ -55,6 +83,9 @@ public final class Matchup extends Message {
       if (message == null) return;
       this.my_team = message.my_team;
       this.opponent_team = message.opponent_team;
+      this.week = message.week;
+      this.week_start = message.week_start;
+      this.week_end = message.week_end;
     }
 
     public Builder my_team(Team my_team) {
@@ -67,6 +98,21 @@ public final class Matchup extends Message {
       return this;
     }
 
+    public Builder week(Integer week) {
+      this.week = week;
+      return this;
+    }
+
+    public Builder week_start(String week_start) {
+      this.week_start = week_start;
+      return this;
+    }
+
+    public Builder week_end(String week_end) {
+      this.week_end = week_end;
+      return this;
+    }
+
     @Override
     public Matchup build() {
       return new Matchup(this);
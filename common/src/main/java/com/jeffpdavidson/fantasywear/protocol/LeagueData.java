@@ -3,6 +3,7 @@ package com.jeffpdavidson.fantasywear.protocol;
 import android.accounts.Account;
 import android.net.Uri;
 import android.support.annotation.Nullable;
+import android.util.Base64;
 
 import com.google.android.gms.wearable.Asset;
 import com.google.android.gms.wearable.DataItem;
@@ -14,6 +15,8 @@ import com.jeffpdavidson.fantasywear.api.model.Matchup;
 import com.jeffpdavidson.fantasywear.common.BuildConfig;
 import com.jeffpdavidson.fantasywear.util.WireUtil;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Set;
 
@@ -58,6 +61,26 @@ public final class LeagueData {
         return request.asPutDataRequest();
     }
 
+    /**
+     * Return a fingerprint of the league data that {@link #getUpdateRequest} would send for a
+     * matchup.
+     *
+     * Logo images aren't hashed directly, since the point of the fingerprint is to avoid fetching
+     * them; they are covered by the logo URLs in the matchup. The app version is left out, even
+     * though it is part of the data sent, since a change in fingerprint is treated as a score
+     * change (e.g. to pick the sync interval), which an app upgrade isn't.
+     */
+    public static String getFingerprint(Matchup matchup) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 must be a supported algorithm", e);
+        }
+        digest.update(matchup.toByteArray());
+        return Base64.encodeToString(digest.digest(), Base64.NO_WRAP);
+    }
+
     /** Extract the {@link Matchup} for a {@link DataMap} obtained in an update request. */
     public static Matchup getMatchup(DataMap dataMap) {
         return WireUtil.decodeFromString(dataMap.getString(KEY_MATCHUP), Matchup.class);
@@ -106,6 +129,26 @@ public final class LeagueData {
         return null;
     }
 
+    /**
+     * Returns the account name for a {@link Uri} obtained with {@link #getLeagueUri}, or null for
+     * other URIs.
+     */
+    @Nullable
+    public static String getAccountName(Uri uri) {
+        List<String> segments = uri.getPathSegments();
+        return isLeagueUri(segments) ? segments.get(1) : null;
+    }
+
+    /**
+     * Returns the league key for a {@link Uri} obtained with {@link #getLeagueUri}, or null for
+     * other URIs.
+     */
+    @Nullable
+    public static String getLeagueKey(Uri uri) {
+        List<String> segments = uri.getPathSegments();
+        return isLeagueUri(segments) ? segments.get(2) : null;
+    }
+
     /** Return whether the given {@link DataItem} is for one of the given account names. */
     public static boolean isActiveLeagueDataItem(DataItem dataItem, Set<String> accountNames) {
         List<String> segments = dataItem.getUri().getPathSegments();
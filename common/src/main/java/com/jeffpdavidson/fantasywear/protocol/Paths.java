@@ -12,15 +12,31 @@ public final class Paths {
     /** Path for league data. Use {@link LeagueData} rather than using this directly. */
     static final String LEAGUE = "league";
 
-    /** Path used with the MessageApi for the wear device to request a sync on the host device. */
+    /**
+     * Path used with the MessageApi for the wear device to request a sync on the host device.
+     *
+     * An empty payload requests that every league be pushed again. Otherwise, the payload is the
+     * UTF-8 encoded path of a league URI (see {@link LeagueData#getLeagueUri}), and only that
+     * league is refreshed.
+     */
     public static final String SYNC = "sync";
 
     /**
      * Path used with the MessageApi for the wear device to acknowledge a sync.
      *
      * Used to work around an apparent Wear bug where the first few DataItems don't immediately
-     * reach the Wear device. For the initial sync of a league, we send messages every few seconds
-     * until we receive an ACK from the wear device.
+     * reach the Wear device. For the initial sync of a league, we send {@link #PROBE} messages every
+     * few seconds until we receive an ACK from the wear device.
      */
     public static final String ACK = "ack";
+
+    /**
+     * Path used with the MessageApi for the host device to ask the wear device to confirm receipt
+     * of a league's data.
+     *
+     * The message payload is the UTF-8 encoded league URI. If the wear device has data for the
+     * league, it processes it as though it were newly changed, which includes sending an
+     * {@link #ACK} for manual syncs. This is much cheaper than resending the full DataItem.
+     */
+    public static final String PROBE = "probe";
 }
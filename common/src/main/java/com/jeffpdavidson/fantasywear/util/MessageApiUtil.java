@@ -16,13 +16,8 @@ public final class MessageApiUtil {
 
     /** Send a message to the given path with the given data to all connected nodes. */
     public static void sendMessage(GoogleApiClient googleApiClient, String path, byte[] data) {
-        if (!googleApiClient.isConnected()) {
-            ConnectionResult result = googleApiClient.blockingConnect(
-                    Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS);
-            if (!result.isSuccess()) {
-                FWLog.e("Failed to connect to GoogleApiClient");
-                return;
-            }
+        if (!connect(googleApiClient)) {
+            return;
         }
 
         GetConnectedNodesResult result = Wearable.NodeApi.getConnectedNodes(googleApiClient)
@@ -47,4 +42,33 @@ public final class MessageApiUtil {
             }
         }
     }
+
+    /** Send a message to the given path with the given data to a single node. */
+    public static void sendMessage(GoogleApiClient googleApiClient, String nodeId, String path,
+            byte[] data) {
+        if (!connect(googleApiClient)) {
+            return;
+        }
+
+        FWLog.d("Sending %s request to %s", path, nodeId);
+        SendMessageResult sendResult = Wearable.MessageApi.sendMessage(
+                googleApiClient, nodeId, path, data)
+                .await(Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS);
+        if (!sendResult.getStatus().isSuccess()) {
+            FWLog.e("Error sending %s request to %s, status = %s", path, nodeId,
+                    sendResult.getStatus());
+        }
+    }
+
+    private static boolean connect(GoogleApiClient googleApiClient) {
+        if (!googleApiClient.isConnected()) {
+            ConnectionResult result = googleApiClient.blockingConnect(
+                    Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS);
+            if (!result.isSuccess()) {
+                FWLog.e("Failed to connect to GoogleApiClient");
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -9,7 +9,9 @@ import com.jeffpdavidson.fantasywear.R;
 import com.jeffpdavidson.fantasywear.api.auth.AccountAuthenticator;
 import com.jeffpdavidson.fantasywear.api.model.League;
 import com.jeffpdavidson.fantasywear.fragments.AccountInfoDialogFragment;
+import com.jeffpdavidson.fantasywear.fragments.PinnedLeaguesDialogFragment;
 import com.jeffpdavidson.fantasywear.fragments.SyncIntervalDialogFragment;
+import com.jeffpdavidson.fantasywear.fragments.SyncLeagueBudgetDialogFragment;
 import com.robotium.solo.Condition;
 import com.robotium.solo.Solo;
 
@@ -119,6 +121,24 @@ public class MainActivityTest extends ActivityInstrumentationTestCase2<TestMainA
         assertTrue(mSolo.waitForFragmentByTag(SyncIntervalDialogFragment.TAG, WAIT_TIMEOUT_MS));
     }
 
+    /** Verify that clicking the leagues per sync menu item launches the preference dialog. */
+    public void testSetSyncLeagueBudget() throws Exception {
+        startActivity(new League[]{}, new Account[]{});
+        mSolo.clickOnMenuItem(getString(R.string.sync_league_budget));
+        assertTrue(mSolo.waitForFragmentByTag(
+                SyncLeagueBudgetDialogFragment.TAG, WAIT_TIMEOUT_MS));
+    }
+
+    /** Verify that clicking the pinned leagues menu item lists the leagues. */
+    public void testPinnedLeagues() throws Exception {
+        startActivity(new League[]{LEAGUE_ABCDE_1, LEAGUE_FGHIJ_3},
+                new Account[]{ACCOUNT_ABCDE, ACCOUNT_FGHIJ});
+        mSolo.clickOnMenuItem(getString(R.string.pinned_leagues));
+        assertTrue(mSolo.waitForFragmentByTag(PinnedLeaguesDialogFragment.TAG, WAIT_TIMEOUT_MS));
+        assertTrue(mSolo.searchText("League 1", true));
+        assertTrue(mSolo.searchText("League 3", true));
+    }
+
     /** Verify that the account list is still shown after a screen rotation. */
     public void testAccountListScreenRotation() throws Exception {
         startActivity(new League[] { LEAGUE_ABCDE_1 },
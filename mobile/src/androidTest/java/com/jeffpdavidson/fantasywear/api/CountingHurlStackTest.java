@@ -0,0 +1,98 @@
+package com.jeffpdavidson.fantasywear.api;
+
+import junit.framework.TestCase;
+
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.net.ssl.SSLSocketFactory;
+
+public class CountingHurlStackTest extends TestCase {
+    private static final String HOST = "fantasysports.yahooapis.com";
+    private static final String ORIGIN = "https://" + HOST;
+    private static final String HTTP_ORIGIN = "http://l.yimg.com";
+
+    private CountingHurlStack.CountingSSLSocketFactory mFactory;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mFactory = new CountingHurlStack.CountingSSLSocketFactory(new FakeSSLSocketFactory());
+    }
+
+    public void testCountsSockets() throws Exception {
+        assertTrue(mFactory.getSocketsCreated().isEmpty());
+        mFactory.createSocket(new Socket(), HOST, 443, true);
+        mFactory.createSocket(HOST, 443);
+        mFactory.createSocket("other.example.com", 443);
+        assertEquals(Integer.valueOf(2), mFactory.getSocketsCreated().get(ORIGIN));
+        assertEquals(Integer.valueOf(1),
+                mFactory.getSocketsCreated().get("https://other.example.com"));
+    }
+
+    public void testDelegatesCipherSuites() {
+        assertEquals("suite", mFactory.getDefaultCipherSuites()[0]);
+        assertEquals("suite", mFactory.getSupportedCipherSuites()[0]);
+        assertTrue(mFactory.getSocketsCreated().isEmpty());
+    }
+
+    public void testStatsSince() {
+        Map<String, Integer> requests = new HashMap<>();
+        Map<String, Integer> connectionsOpened = new HashMap<>();
+        requests.put(ORIGIN, 2);
+        connectionsOpened.put(ORIGIN, 1);
+        CountingHurlStack.Stats start = new CountingHurlStack.Stats(requests, connectionsOpened);
+        requests.put(ORIGIN, 7);
+        requests.put(HTTP_ORIGIN, 3);
+        connectionsOpened.put(ORIGIN, 2);
+        CountingHurlStack.Stats stats =
+                new CountingHurlStack.Stats(requests, connectionsOpened).since(start);
+
+        assertEquals(Integer.valueOf(5), stats.requests.get(ORIGIN));
+        assertEquals(Integer.valueOf(1), stats.connectionsOpened.get(ORIGIN));
+        assertEquals(4, stats.getConnectionsReused(ORIGIN));
+        // Plain HTTP connections aren't counted.
+        assertEquals(Integer.valueOf(3), stats.requests.get(HTTP_ORIGIN));
+        assertEquals(-1, stats.getConnectionsReused(HTTP_ORIGIN));
+    }
+
+    private static final class FakeSSLSocketFactory extends SSLSocketFactory {
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return new String[] { "suite" };
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return new String[] { "suite" };
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, String host, int port, boolean autoClose) {
+            return socket;
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) {
+            return new Socket();
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) {
+            return new Socket();
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) {
+            return new Socket();
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress,
+                int localPort) {
+            return new Socket();
+        }
+    }
+}
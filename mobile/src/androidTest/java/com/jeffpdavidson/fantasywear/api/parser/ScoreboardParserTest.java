@@ -8,6 +8,9 @@ import com.jeffpdavidson.fantasywear.test.R;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 public class ScoreboardParserTest extends InstrumentationTestCase {
     public void testParser() throws Exception {
@@ -25,6 +28,9 @@ public class ScoreboardParserTest extends InstrumentationTestCase {
         Matchup expectedMatchup = new Matchup.Builder()
                 .my_team(myTeam)
                 .opponent_team(opponentTeam)
+                .week(3)
+                .week_start("2014-09-15")
+                .week_end("2014-09-21")
                 .build();
 
         InputStream is = getInstrumentation().getContext().getResources()
@@ -38,4 +44,49 @@ public class ScoreboardParserTest extends InstrumentationTestCase {
             is.close();
         }
     }
+
+    public void testParser_multipleLeagues() throws Exception {
+        Map<String, Matchup> expectedMatchups = new HashMap<>();
+        expectedMatchups.put("key1", new Matchup.Builder()
+                .my_team(new Team.Builder()
+                        .name("Me")
+                        .is_owned_by_current_login(true)
+                        .logo_url("http://logo")
+                        .score("100.00")
+                        .build())
+                .opponent_team(new Team.Builder()
+                        .name("Opponent")
+                        .logo_url("http://opplogo")
+                        .score("50.00")
+                        .build())
+                .build());
+        // key2 is not a head-to-head matchup, and should be reported as an error without affecting
+        // key3.
+        expectedMatchups.put("key3", new Matchup.Builder()
+                .my_team(new Team.Builder()
+                        .name("Me")
+                        .is_owned_by_current_login(true)
+                        .logo_url("http://logo3")
+                        .score("10.00")
+                        .build())
+                .opponent_team(new Team.Builder()
+                        .name("Opponent 3")
+                        .logo_url("http://opplogo3")
+                        .score("20.00")
+                        .build())
+                .build());
+
+        InputStream is = getInstrumentation().getContext().getResources()
+                .openRawResource(R.raw.scoreboard_multi_league_example);
+        //noinspection TryFinallyCanBeTryWithResources
+        try {
+            InputStreamReader isr = new InputStreamReader(is, "UTF-8");
+            ScoreboardParser.MultiLeagueScoreboard scoreboard =
+                    ScoreboardParser.parseMultiLeagueXml(isr);
+            assertEquals(expectedMatchups, scoreboard.matchups);
+            assertEquals(Collections.singleton("key2"), scoreboard.errors.keySet());
+        } finally {
+            is.close();
+        }
+    }
 }
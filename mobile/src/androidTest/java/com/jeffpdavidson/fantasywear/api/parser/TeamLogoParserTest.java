@@ -0,0 +1,26 @@
+package com.jeffpdavidson.fantasywear.api.parser;
+
+import android.test.InstrumentationTestCase;
+
+import com.jeffpdavidson.fantasywear.test.R;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class TeamLogoParserTest extends InstrumentationTestCase {
+    public void testParser() throws Exception {
+        InputStream is = getInstrumentation().getContext().getResources()
+                .openRawResource(R.raw.teams_example);
+        // Can't use try-with-resources here; we support pre-API-19 devices.
+        //noinspection TryFinallyCanBeTryWithResources
+        try {
+            InputStreamReader isr = new InputStreamReader(is, "UTF-8");
+            assertEquals(Arrays.asList("http://logo1", "http://logo2", "http://logo3"),
+                    new ArrayList<>(TeamLogoParser.parseXml(isr)));
+        } finally {
+            is.close();
+        }
+    }
+}
@@ -8,6 +8,10 @@ import android.test.RenamingDelegatingContext;
 
 import com.jeffpdavidson.fantasywear.api.auth.Token;
 import com.jeffpdavidson.fantasywear.api.model.League;
+import com.jeffpdavidson.fantasywear.api.model.Matchup;
+import com.jeffpdavidson.fantasywear.api.model.Team;
+
+import java.util.Map;
 
 public class LeagueTableTest extends AndroidTestCase {
     private static final Account ACCOUNT = new Account("name", "type");
@@ -115,4 +119,148 @@ public class LeagueTableTest extends AndroidTestCase {
         TokenTable.clear(mTestContext);
         MoreAsserts.assertEquals(new League[] {}, LeagueTable.getLeagues(mTestContext, ACCOUNT));
     }
+
+    public void testPushedFingerprint_preservedAcrossUpdate() {
+        League league = new League.Builder()
+                .account_name(ACCOUNT.name)
+                .league_key("key")
+                .league_name("name")
+                .build();
+        LeagueTable.updateLeagues(mTestContext, ACCOUNT, new League[] { league });
+        assertNull(LeagueTable.getPushedFingerprint(mTestContext, ACCOUNT, league));
+        LeagueTable.setPushedFingerprint(mTestContext, ACCOUNT, league, "fingerprint");
+
+        League renamedLeague = new League.Builder(league).league_name("new name").build();
+        LeagueTable.updateLeagues(mTestContext, ACCOUNT, new League[] { renamedLeague });
+        MoreAsserts.assertEquals(new League[] { renamedLeague },
+                LeagueTable.getLeagues(mTestContext, ACCOUNT));
+        assertEquals("fingerprint",
+                LeagueTable.getPushedFingerprint(mTestContext, ACCOUNT, renamedLeague));
+    }
+
+    public void testLastSyncTimesSec() {
+        League league = new League.Builder()
+                .account_name(ACCOUNT.name)
+                .league_key("key")
+                .league_name("name")
+                .build();
+        League league2 = new League.Builder(league).league_key("key2").build();
+        LeagueTable.updateLeagues(mTestContext, ACCOUNT, new League[] { league, league2 });
+        assertTrue(LeagueTable.getLastSyncTimesSec(mTestContext, ACCOUNT).isEmpty());
+
+        LeagueTable.setLastSyncTimeSec(mTestContext, ACCOUNT, league, 1000L);
+        Map<String, Long> lastSyncTimesSec =
+                LeagueTable.getLastSyncTimesSec(mTestContext, ACCOUNT);
+        assertEquals(1, lastSyncTimesSec.size());
+        assertEquals(Long.valueOf(1000L), lastSyncTimesSec.get("key"));
+    }
+
+    public void testPushedMatchups() {
+        League league = new League.Builder()
+                .account_name(ACCOUNT.name)
+                .league_key("key")
+                .league_name("name")
+                .build();
+        League league2 = new League.Builder(league).league_key("key2").build();
+        LeagueTable.updateLeagues(mTestContext, ACCOUNT, new League[] { league, league2 });
+        assertTrue(LeagueTable.getPushedMatchups(mTestContext, ACCOUNT).isEmpty());
+
+        Matchup matchup = new Matchup.Builder()
+                .my_team(new Team.Builder().score("10").build())
+                .opponent_team(new Team.Builder().score("20").build())
+                .build();
+        LeagueTable.setPushedMatchup(mTestContext, ACCOUNT, league, matchup);
+        LeagueTable.setLastSyncTimeSec(mTestContext, ACCOUNT, league, 1000L);
+        Map<String, LeagueTable.PushedMatchup> pushedMatchups =
+                LeagueTable.getPushedMatchups(mTestContext, ACCOUNT);
+        assertEquals(1, pushedMatchups.size());
+        assertEquals(matchup, pushedMatchups.get("key").matchup);
+        assertEquals(1000L, pushedMatchups.get("key").lastSyncTimeSec);
+    }
+
+    public void testGetActiveLeagues() {
+        League league = new League.Builder()
+                .account_name(ACCOUNT.name)
+                .league_key("key")
+                .league_name("name")
+                .build();
+        League league2 = new League.Builder(league).league_key("key2").build();
+        League league3 = new League.Builder(league).league_key("key3").build();
+        LeagueTable.updateLeagues(mTestContext, ACCOUNT,
+                new League[] { league, league2, league3 });
+        LeagueTable.setNextSyncTimeSec(mTestContext, ACCOUNT, league, 0L);
+        LeagueTable.setNextSyncTimeSec(mTestContext, ACCOUNT, league2, 0L);
+        LeagueTable.setFailureState(mTestContext, ACCOUNT, league2, 3, 2000L);
+        LeagueTable.setNextSyncTimeSec(mTestContext, ACCOUNT, league3, 5000L);
+
+        MoreAsserts.assertEquals(new League[] { league },
+                LeagueTable.getActiveLeagues(mTestContext, ACCOUNT, 1000L));
+        MoreAsserts.assertEquals(new League[] { league, league2 },
+                LeagueTable.getActiveLeagues(mTestContext, ACCOUNT, 2000L));
+        MoreAsserts.assertEquals(new League[0],
+                LeagueTable.getActiveLeagues(mTestContext, ACCOUNT2, 2000L));
+    }
+
+    public void testDeferred() {
+        League league = new League.Builder()
+                .account_name(ACCOUNT.name)
+                .league_key("key")
+                .league_name("name")
+                .build();
+        LeagueTable.updateLeagues(mTestContext, ACCOUNT, new League[] { league });
+        LeagueTable.setNextSyncTimeSec(mTestContext, ACCOUNT, league, 5000L);
+        MoreAsserts.assertEquals(new League[0],
+                LeagueTable.getSyncableLeagues(mTestContext, ACCOUNT, 1000L, true, false));
+
+        // Deferred leagues are due, but aren't considered active.
+        LeagueTable.setDeferred(mTestContext, ACCOUNT, league);
+        MoreAsserts.assertEquals(new League[] { league },
+                LeagueTable.getSyncableLeagues(mTestContext, ACCOUNT, 1000L, true, false));
+        MoreAsserts.assertEquals(new League[0],
+                LeagueTable.getActiveLeagues(mTestContext, ACCOUNT, 1000L));
+
+        LeagueTable.setNextSyncTimeSec(mTestContext, ACCOUNT, league, 5000L);
+        MoreAsserts.assertEquals(new League[0],
+                LeagueTable.getSyncableLeagues(mTestContext, ACCOUNT, 1000L, true, false));
+    }
+
+    public void testGetSyncableLeagues_coolingDown() {
+        League league = new League.Builder()
+                .account_name(ACCOUNT.name)
+                .league_key("key")
+                .league_name("name")
+                .build();
+        LeagueTable.updateLeagues(mTestContext, ACCOUNT, new League[] { league });
+        LeagueTable.setFailureState(mTestContext, ACCOUNT, league, 1, 2000L);
+
+        MoreAsserts.assertEquals(new League[0],
+                LeagueTable.getSyncableLeagues(mTestContext, ACCOUNT, 1000L, false, false));
+        MoreAsserts.assertEquals(new League[] { league },
+                LeagueTable.getSyncableLeagues(mTestContext, ACCOUNT, 1000L, false, true));
+        MoreAsserts.assertEquals(new League[] { league },
+                LeagueTable.getSyncableLeagues(mTestContext, ACCOUNT, 2000L, false, false));
+    }
+
+    public void testFinished() {
+        League league = new League.Builder()
+                .account_name(ACCOUNT.name)
+                .league_key("key")
+                .league_name("name")
+                .build();
+        LeagueTable.updateLeagues(mTestContext, ACCOUNT, new League[] { league });
+        LeagueTable.setNextSyncTimeSec(mTestContext, ACCOUNT, league, 0L);
+        LeagueTable.setFinished(mTestContext, ACCOUNT, league, true);
+
+        // Finished leagues are never due, but are still synced when every league is.
+        MoreAsserts.assertEquals(new League[0],
+                LeagueTable.getSyncableLeagues(mTestContext, ACCOUNT, 1000L, true, false));
+        MoreAsserts.assertEquals(new League[0],
+                LeagueTable.getActiveLeagues(mTestContext, ACCOUNT, 1000L));
+        MoreAsserts.assertEquals(new League[] { league },
+                LeagueTable.getSyncableLeagues(mTestContext, ACCOUNT, 1000L, false, false));
+
+        LeagueTable.setFinished(mTestContext, ACCOUNT, league, false);
+        MoreAsserts.assertEquals(new League[] { league },
+                LeagueTable.getSyncableLeagues(mTestContext, ACCOUNT, 1000L, true, false));
+    }
 }
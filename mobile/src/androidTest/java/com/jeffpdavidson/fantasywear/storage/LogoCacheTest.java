@@ -0,0 +1,53 @@
+package com.jeffpdavidson.fantasywear.storage;
+
+import android.test.AndroidTestCase;
+import android.test.MoreAsserts;
+
+public class LogoCacheTest extends AndroidTestCase {
+    private static final String URL = "https://example.com/logo.png";
+    private static final String URL2 = "https://example.com/logo2.png";
+
+    @Override
+    public void tearDown() throws Exception {
+        LogoCache.clear(getContext());
+        super.tearDown();
+    }
+
+    public void testMissing() {
+        assertNull(LogoCache.get(getContext(), URL));
+    }
+
+    public void testPutAndGet() {
+        LogoCache.put(getContext(), URL, new byte[] { 1, 2, 3 });
+        LogoCache.put(getContext(), URL2, new byte[] { 4, 5 });
+        MoreAsserts.assertEquals(new byte[] { 1, 2, 3 }, LogoCache.get(getContext(), URL));
+        MoreAsserts.assertEquals(new byte[] { 4, 5 }, LogoCache.get(getContext(), URL2));
+    }
+
+    public void testReplace() {
+        LogoCache.put(getContext(), URL, new byte[] { 1, 2, 3 });
+        LogoCache.put(getContext(), URL, new byte[] { 4 });
+        MoreAsserts.assertEquals(new byte[] { 4 }, LogoCache.get(getContext(), URL));
+    }
+
+    public void testPrune() {
+        LogoCache.put(getContext(), URL, new byte[] { 1, 2, 3 });
+        LogoCache.put(getContext(), URL2, new byte[] { 4, 5 });
+        long currentTimeMs = System.currentTimeMillis();
+        assertTrue(LogoCache.getFile(getContext(), URL).setLastModified(
+                currentTimeMs - LogoCache.MAX_UNUSED_AGE_MS - 1000));
+        LogoCache.prune(getContext(), currentTimeMs);
+        assertNull(LogoCache.get(getContext(), URL));
+        MoreAsserts.assertEquals(new byte[] { 4, 5 }, LogoCache.get(getContext(), URL2));
+    }
+
+    public void testPrune_keepsUsedLogos() {
+        LogoCache.put(getContext(), URL, new byte[] { 1, 2, 3 });
+        long currentTimeMs = System.currentTimeMillis();
+        assertTrue(LogoCache.getFile(getContext(), URL).setLastModified(
+                currentTimeMs - LogoCache.MAX_UNUSED_AGE_MS - 1000));
+        assertTrue(LogoCache.contains(getContext(), URL));
+        LogoCache.prune(getContext(), currentTimeMs);
+        MoreAsserts.assertEquals(new byte[] { 1, 2, 3 }, LogoCache.get(getContext(), URL));
+    }
+}
@@ -0,0 +1,95 @@
+package com.jeffpdavidson.fantasywear.storage;
+
+import android.accounts.Account;
+import android.content.Context;
+import android.test.AndroidTestCase;
+import android.test.RenamingDelegatingContext;
+
+import com.jeffpdavidson.fantasywear.api.auth.Token;
+import com.jeffpdavidson.fantasywear.api.model.League;
+import com.jeffpdavidson.fantasywear.api.model.Matchup;
+import com.jeffpdavidson.fantasywear.api.model.Team;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SortedMap;
+
+public class MatchupArchiveTableTest extends AndroidTestCase {
+    private static final Account ACCOUNT = new Account("name", "type");
+    private static final League LEAGUE = new League.Builder()
+            .account_name(ACCOUNT.name)
+            .league_key("key")
+            .build();
+
+    private Context mTestContext;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        mTestContext = new RenamingDelegatingContext(getContext(), "test");
+        TokenTable.insertToken(mTestContext, ACCOUNT, new Token.Builder().build());
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        MatchupArchiveTable.clear(mTestContext);
+        TokenTable.clear(mTestContext);
+    }
+
+    public void testArchiveMatchup() {
+        Matchup week2 = createMatchup(2, "20");
+        Matchup week1 = createMatchup(1, "10");
+        MatchupArchiveTable.archiveMatchup(mTestContext, ACCOUNT, LEAGUE, week2);
+        MatchupArchiveTable.archiveMatchup(mTestContext, ACCOUNT, LEAGUE, week1);
+
+        assertTrue(MatchupArchiveTable.isArchived(mTestContext, ACCOUNT, LEAGUE, 1));
+        assertTrue(MatchupArchiveTable.isArchived(mTestContext, ACCOUNT, LEAGUE, 2));
+        assertFalse(MatchupArchiveTable.isArchived(mTestContext, ACCOUNT, LEAGUE, 3));
+        SortedMap<Integer, Matchup> matchups =
+                MatchupArchiveTable.getMatchups(mTestContext, ACCOUNT, LEAGUE);
+        assertEquals(Arrays.asList(1, 2), new ArrayList<>(matchups.keySet()));
+        assertEquals(week1, matchups.get(1));
+        assertEquals(week2, matchups.get(2));
+    }
+
+    public void testArchiveMatchup_immutable() {
+        Matchup matchup = createMatchup(1, "10");
+        MatchupArchiveTable.archiveMatchup(mTestContext, ACCOUNT, LEAGUE, matchup);
+        MatchupArchiveTable.archiveMatchup(mTestContext, ACCOUNT, LEAGUE, createMatchup(1, "20"));
+        assertEquals(matchup,
+                MatchupArchiveTable.getMatchups(mTestContext, ACCOUNT, LEAGUE).get(1));
+    }
+
+    public void testArchiveUnavailable() {
+        MatchupArchiveTable.archiveMatchup(mTestContext, ACCOUNT, LEAGUE, createMatchup(2, "20"));
+        MatchupArchiveTable.archiveUnavailable(mTestContext, ACCOUNT, LEAGUE, 1);
+        // An archived matchup is never replaced.
+        MatchupArchiveTable.archiveUnavailable(mTestContext, ACCOUNT, LEAGUE, 2);
+
+        assertTrue(MatchupArchiveTable.isArchived(mTestContext, ACCOUNT, LEAGUE, 1));
+        SortedMap<Integer, Matchup> matchups =
+                MatchupArchiveTable.getMatchups(mTestContext, ACCOUNT, LEAGUE);
+        assertEquals(Arrays.asList(2), new ArrayList<>(matchups.keySet()));
+    }
+
+    public void testArchiveMatchup_outlivesLeague() {
+        LeagueTable.updateLeagues(mTestContext, ACCOUNT, new League[] { LEAGUE });
+        MatchupArchiveTable.archiveMatchup(mTestContext, ACCOUNT, LEAGUE, createMatchup(1, "10"));
+        LeagueTable.updateLeagues(mTestContext, ACCOUNT, new League[0]);
+        assertTrue(MatchupArchiveTable.isArchived(mTestContext, ACCOUNT, LEAGUE, 1));
+    }
+
+    public void testDeleteAccount() {
+        MatchupArchiveTable.archiveMatchup(mTestContext, ACCOUNT, LEAGUE, createMatchup(1, "10"));
+        TokenTable.clear(mTestContext);
+        assertFalse(MatchupArchiveTable.isArchived(mTestContext, ACCOUNT, LEAGUE, 1));
+    }
+
+    private static Matchup createMatchup(int week, String score) {
+        return new Matchup.Builder()
+                .week(week)
+                .my_team(new Team.Builder().score(score).build())
+                .opponent_team(new Team.Builder().score("0").build())
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.jeffpdavidson.fantasywear.storage;
+
+import android.accounts.Account;
+import android.content.Context;
+import android.test.AndroidTestCase;
+import android.test.RenamingDelegatingContext;
+
+import com.jeffpdavidson.fantasywear.api.auth.Token;
+import com.jeffpdavidson.fantasywear.api.model.League;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+public class SyncJournalTableTest extends AndroidTestCase {
+    private static final Account ACCOUNT = new Account("name", "type");
+    private static final League LEAGUE1 = new League.Builder()
+            .account_name(ACCOUNT.name)
+            .league_key("key1")
+            .build();
+    private static final League LEAGUE2 = new League.Builder()
+            .account_name(ACCOUNT.name)
+            .league_key("key2")
+            .build();
+
+    private Context mTestContext;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        mTestContext = new RenamingDelegatingContext(getContext(), "test");
+        TokenTable.insertToken(mTestContext, ACCOUNT, new Token.Builder().build());
+        LeagueTable.updateLeagues(mTestContext, ACCOUNT, new League[] { LEAGUE1, LEAGUE2 });
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        SyncJournalTable.clear(mTestContext);
+        LeagueTable.clear(mTestContext);
+        TokenTable.clear(mTestContext);
+    }
+
+    public void testNoGeneration() {
+        assertNull(SyncJournalTable.getUnfinishedGeneration(mTestContext, ACCOUNT, 0));
+    }
+
+    public void testInterruptedGeneration() {
+        SyncJournalTable.startGeneration(
+                mTestContext, ACCOUNT, new League[] { LEAGUE1, LEAGUE2 }, true, 1000L);
+        SyncJournalTable.markLeagueDone(mTestContext, ACCOUNT, LEAGUE1);
+        SyncJournalTable.Generation generation =
+                SyncJournalTable.getUnfinishedGeneration(mTestContext, ACCOUNT, 0);
+        assertNotNull(generation);
+        assertTrue(generation.forced);
+        assertEquals(Collections.singleton(LEAGUE2.league_key), generation.pendingLeagueKeys);
+    }
+
+    public void testStaleGenerationIgnored() {
+        SyncJournalTable.startGeneration(
+                mTestContext, ACCOUNT, new League[] { LEAGUE1 }, false, 1000L);
+        assertNull(SyncJournalTable.getUnfinishedGeneration(mTestContext, ACCOUNT, 2000L));
+    }
+
+    public void testStartGenerationReplacesUnfinished() {
+        SyncJournalTable.startGeneration(
+                mTestContext, ACCOUNT, new League[] { LEAGUE1 }, true, 1000L);
+        SyncJournalTable.startGeneration(
+                mTestContext, ACCOUNT, new League[] { LEAGUE1, LEAGUE2 }, false, 2000L);
+        SyncJournalTable.Generation generation =
+                SyncJournalTable.getUnfinishedGeneration(mTestContext, ACCOUNT, 0);
+        assertFalse(generation.forced);
+        assertEquals(new HashSet<>(Arrays.asList(LEAGUE1.league_key, LEAGUE2.league_key)),
+                generation.pendingLeagueKeys);
+    }
+
+    public void testFinishGeneration() {
+        SyncJournalTable.startGeneration(
+                mTestContext, ACCOUNT, new League[] { LEAGUE1, LEAGUE2 }, false, 1000L);
+        SyncJournalTable.finishGeneration(mTestContext, ACCOUNT);
+        assertNull(SyncJournalTable.getUnfinishedGeneration(mTestContext, ACCOUNT, 0));
+    }
+}
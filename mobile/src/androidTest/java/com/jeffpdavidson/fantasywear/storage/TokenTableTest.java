@@ -8,6 +8,8 @@ import android.test.RenamingDelegatingContext;
 import com.jeffpdavidson.fantasywear.api.auth.Token;
 import com.jeffpdavidson.fantasywear.api.auth.Token.Builder;
 
+import java.util.Arrays;
+
 public class TokenTableTest extends AndroidTestCase {
     private static final Account ACCOUNT = new Account("name", "type");
     private static final Account ACCOUNT2 = new Account("name2", "type");
@@ -71,4 +73,15 @@ public class TokenTableTest extends AndroidTestCase {
         assertEquals("3", TokenTable.getToken(mTestContext, ACCOUNT3).token);
         assertNull(TokenTable.getToken(mTestContext, ACCOUNT2).token);
     }
+
+    public void testSetLastSyncTimeSec_multipleAccounts() {
+        Token token = new Builder().token("aaa").build();
+        TokenTable.insertToken(mTestContext, ACCOUNT, token);
+        TokenTable.insertToken(mTestContext, ACCOUNT2, token);
+        TokenTable.insertToken(mTestContext, ACCOUNT3, token);
+        TokenTable.setLastSyncTimeSec(mTestContext, Arrays.asList(ACCOUNT, ACCOUNT3), 12345L);
+        assertEquals(12345L, TokenTable.getLastSyncTimeSec(mTestContext, ACCOUNT));
+        assertEquals(0L, TokenTable.getLastSyncTimeSec(mTestContext, ACCOUNT2));
+        assertEquals(12345L, TokenTable.getLastSyncTimeSec(mTestContext, ACCOUNT3));
+    }
 }
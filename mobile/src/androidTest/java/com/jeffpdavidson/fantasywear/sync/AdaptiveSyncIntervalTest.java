@@ -0,0 +1,34 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import junit.framework.TestCase;
+
+public class AdaptiveSyncIntervalTest extends TestCase {
+    private static final int MAX_INTERVAL_SEC = 30 * 60;
+    private static final long NOW_SEC = 1000000L;
+
+    public void testNoChangeRecorded() {
+        assertEquals(MAX_INTERVAL_SEC,
+                AdaptiveSyncInterval.getSyncIntervalSec(0L, NOW_SEC, MAX_INTERVAL_SEC));
+    }
+
+    public void testRecentChange() {
+        assertEquals(AdaptiveSyncInterval.MIN_SYNC_INTERVAL_SEC,
+                AdaptiveSyncInterval.getSyncIntervalSec(NOW_SEC - 10, NOW_SEC, MAX_INTERVAL_SEC));
+    }
+
+    public void testBacksOff() {
+        assertEquals(5 * 60,
+                AdaptiveSyncInterval.getSyncIntervalSec(
+                        NOW_SEC - 5 * 60, NOW_SEC, MAX_INTERVAL_SEC));
+    }
+
+    public void testCappedAtMaximum() {
+        assertEquals(MAX_INTERVAL_SEC,
+                AdaptiveSyncInterval.getSyncIntervalSec(
+                        NOW_SEC - 24 * 60 * 60, NOW_SEC, MAX_INTERVAL_SEC));
+    }
+
+    public void testMaximumBelowMinimum() {
+        assertEquals(60, AdaptiveSyncInterval.getSyncIntervalSec(NOW_SEC - 10, NOW_SEC, 60));
+    }
+}
@@ -0,0 +1,32 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class HostElectionTest extends TestCase {
+    public void testElectOwner_single() {
+        assertEquals("abc", HostElection.electOwner(Collections.singleton("abc")));
+    }
+
+    public void testElectOwner_lowestNodeId() {
+        assertEquals("1234", HostElection.electOwner(Arrays.asList("5678", "1234", "9abc")));
+    }
+
+    public void testElectOwner_empty() {
+        try {
+            HostElection.electOwner(Collections.<String>emptyList());
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+    }
+
+    public void testGetCapabilityName_escapesAccountName() {
+        String name = HostElection.getCapabilityName("user@example.com/x");
+        assertTrue(name.startsWith(HostElection.CAPABILITY_PREFIX));
+        assertEquals(-1, name.indexOf('/'));
+        assertFalse(name.equals(HostElection.getCapabilityName("user@example.com")));
+    }
+}
@@ -0,0 +1,27 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import junit.framework.TestCase;
+
+public class LeagueBackoffTest extends TestCase {
+    private static final long NOW_SEC = 1000000L;
+
+    public void testFirstFailure() {
+        assertEquals(NOW_SEC + LeagueBackoff.MIN_COOLDOWN_SEC,
+                LeagueBackoff.getRetryAfterSec(1, false, NOW_SEC));
+    }
+
+    public void testBacksOff() {
+        assertEquals(NOW_SEC + 4 * LeagueBackoff.MIN_COOLDOWN_SEC,
+                LeagueBackoff.getRetryAfterSec(3, false, NOW_SEC));
+    }
+
+    public void testCappedAtMaximum() {
+        assertEquals(NOW_SEC + LeagueBackoff.MAX_COOLDOWN_SEC,
+                LeagueBackoff.getRetryAfterSec(100, false, NOW_SEC));
+    }
+
+    public void testPermanentFailure() {
+        assertEquals(NOW_SEC + LeagueBackoff.PERMANENT_FAILURE_COOLDOWN_SEC,
+                LeagueBackoff.getRetryAfterSec(1, true, NOW_SEC));
+    }
+}
@@ -0,0 +1,70 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.test.MoreAsserts;
+
+import com.jeffpdavidson.fantasywear.api.model.League;
+import com.jeffpdavidson.fantasywear.api.model.Matchup;
+import com.jeffpdavidson.fantasywear.api.model.Team;
+
+import junit.framework.TestCase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class LeaguePriorityTest extends TestCase {
+    private static final long NOW_SEC = 1000000L;
+
+    private static final League CLOSE = createLeague("close");
+    private static final League CLOSER = createLeague("closer");
+    private static final League CHANGED = createLeague("changed");
+    private static final League CHANGED_EARLIER = createLeague("changed_earlier");
+    private static final League IDLE = createLeague("idle");
+
+    public void testGetScoreMargin() {
+        assertEquals(0.25, LeaguePriority.getScoreMargin(createMatchup("75", "100")), 1e-9);
+        assertEquals(0.0, LeaguePriority.getScoreMargin(createMatchup("12.5", "12.5")), 1e-9);
+    }
+
+    public void testGetScoreMargin_unknown() {
+        assertNull(LeaguePriority.getScoreMargin(null));
+        assertNull(LeaguePriority.getScoreMargin(new Matchup.Builder().build()));
+        assertNull(LeaguePriority.getScoreMargin(createMatchup("0", "0")));
+        assertNull(LeaguePriority.getScoreMargin(createMatchup("-", "10")));
+    }
+
+    public void testSort() {
+        Map<String, Matchup> matchups = new HashMap<>();
+        matchups.put(CLOSE.league_key, createMatchup("95", "100"));
+        matchups.put(CLOSER.league_key, createMatchup("99", "100"));
+        matchups.put(CHANGED.league_key, createMatchup("50", "100"));
+        matchups.put(IDLE.league_key, createMatchup("100", "50"));
+        Map<String, Long> lastChangeTimesSec = new HashMap<>();
+        lastChangeTimesSec.put(CHANGED.league_key, NOW_SEC - 60);
+        lastChangeTimesSec.put(CHANGED_EARLIER.league_key, NOW_SEC - 120);
+        lastChangeTimesSec.put(IDLE.league_key, NOW_SEC - LeaguePriority.RECENT_CHANGE_SEC - 1);
+
+        League[] sorted = LeaguePriority.sort(
+                new League[] { IDLE, CHANGED_EARLIER, CLOSE, CHANGED, CLOSER },
+                matchups, lastChangeTimesSec, NOW_SEC);
+        MoreAsserts.assertEquals(new League[] { CLOSER, CLOSE, CHANGED, CHANGED_EARLIER, IDLE }, sorted);
+    }
+
+    public void testSort_preservesOrderWithoutData() {
+        League[] leagues = new League[] { IDLE, CLOSE, CHANGED };
+        League[] sorted = LeaguePriority.sort(leagues, Collections.<String, Matchup>emptyMap(),
+                Collections.<String, Long>emptyMap(), NOW_SEC);
+        MoreAsserts.assertEquals(leagues, sorted);
+    }
+
+    private static League createLeague(String key) {
+        return new League.Builder().league_key(key).build();
+    }
+
+    private static Matchup createMatchup(String myScore, String oppScore) {
+        return new Matchup.Builder()
+                .my_team(new Team.Builder().score(myScore).build())
+                .opponent_team(new Team.Builder().score(oppScore).build())
+                .build();
+    }
+}
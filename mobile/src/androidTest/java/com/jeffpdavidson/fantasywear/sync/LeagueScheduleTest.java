@@ -0,0 +1,63 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import com.jeffpdavidson.fantasywear.api.model.Matchup;
+
+import junit.framework.TestCase;
+
+public class LeagueScheduleTest extends TestCase {
+    private static final long DAY_SEC = 24 * 60 * 60;
+    /** 2014-09-15T00:00:00Z. */
+    private static final long WEEK_START_SEC = 1410739200L;
+
+    private static final Matchup MATCHUP = new Matchup.Builder()
+            .week(3)
+            .week_start("2014-09-15")
+            .week_end("2014-09-21")
+            .build();
+
+    public void testNoSchedule() {
+        assertEquals(0L, LeagueSchedule.getNextSyncTimeSec(
+                new Matchup.Builder().build(), WEEK_START_SEC));
+    }
+
+    public void testDuringWeek() {
+        assertEquals(0L, LeagueSchedule.getNextSyncTimeSec(MATCHUP, WEEK_START_SEC + 3 * DAY_SEC));
+    }
+
+    public void testShortlyAfterWeek() {
+        // Stat corrections may still arrive the day after the week ends.
+        assertEquals(0L, LeagueSchedule.getNextSyncTimeSec(MATCHUP, WEEK_START_SEC + 7 * DAY_SEC));
+    }
+
+    public void testLongAfterWeek() {
+        long nowSec = WEEK_START_SEC + 10 * DAY_SEC;
+        assertEquals(nowSec + LeagueSchedule.IDLE_SYNC_INTERVAL_SEC,
+                LeagueSchedule.getNextSyncTimeSec(MATCHUP, nowSec));
+    }
+
+    public void testLongBeforeWeek() {
+        long nowSec = WEEK_START_SEC - 10 * DAY_SEC;
+        assertEquals(nowSec + LeagueSchedule.IDLE_SYNC_INTERVAL_SEC,
+                LeagueSchedule.getNextSyncTimeSec(MATCHUP, nowSec));
+    }
+
+    public void testShortlyBeforeWeek() {
+        // The next sync should happen when the week (plus slack) begins.
+        long nowSec = WEEK_START_SEC - DAY_SEC - 60;
+        assertEquals(WEEK_START_SEC - DAY_SEC, LeagueSchedule.getNextSyncTimeSec(MATCHUP, nowSec));
+    }
+
+    public void testIsWeekOver() {
+        assertFalse(LeagueSchedule.isWeekOver(MATCHUP, WEEK_START_SEC + 7 * DAY_SEC));
+        assertTrue(LeagueSchedule.isWeekOver(MATCHUP, WEEK_START_SEC + 8 * DAY_SEC));
+        assertFalse(LeagueSchedule.isWeekOver(
+                new Matchup.Builder().build(), WEEK_START_SEC + 8 * DAY_SEC));
+    }
+
+    public void testIsPreviousWeekOver() {
+        assertFalse(LeagueSchedule.isPreviousWeekOver(MATCHUP, WEEK_START_SEC));
+        assertTrue(LeagueSchedule.isPreviousWeekOver(MATCHUP, WEEK_START_SEC + DAY_SEC));
+        assertFalse(LeagueSchedule.isPreviousWeekOver(
+                new Matchup.Builder().build(), WEEK_START_SEC + DAY_SEC));
+    }
+}
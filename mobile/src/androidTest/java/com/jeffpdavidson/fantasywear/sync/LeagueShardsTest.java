@@ -0,0 +1,124 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.test.MoreAsserts;
+
+import com.jeffpdavidson.fantasywear.api.model.League;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class LeagueShardsTest extends TestCase {
+    private static final long NOW_SEC = 1000000L;
+    private static final int SYNC_INTERVAL_SEC = (int) TimeUnit.MINUTES.toSeconds(30);
+
+    private static final League LEAGUE_1 = new League.Builder().league_key("1").build();
+    private static final League LEAGUE_2 = new League.Builder().league_key("2").build();
+    private static final League LEAGUE_3 = new League.Builder().league_key("3").build();
+    private static final League LEAGUE_4 = new League.Builder().league_key("4").build();
+    private static final League[] LEAGUES = { LEAGUE_1, LEAGUE_2, LEAGUE_3, LEAGUE_4 };
+
+    private static final Set<String> NO_PINS = Collections.emptySet();
+
+    private final Map<String, Long> mLastSyncTimesSec = new HashMap<>();
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        mLastSyncTimesSec.put("1", NOW_SEC - 40);
+        mLastSyncTimesSec.put("2", NOW_SEC - 10);
+        mLastSyncTimesSec.put("3", NOW_SEC - 30);
+        mLastSyncTimesSec.put("4", NOW_SEC - 20);
+    }
+
+    public void testNoBudget() {
+        MoreAsserts.assertEquals(LEAGUES,
+                LeagueShards.select(LEAGUES, mLastSyncTimesSec, NO_PINS, 0, SYNC_INTERVAL_SEC,
+                        NOW_SEC));
+    }
+
+    public void testWithinBudget() {
+        MoreAsserts.assertEquals(LEAGUES,
+                LeagueShards.select(LEAGUES, mLastSyncTimesSec, NO_PINS, 4, SYNC_INTERVAL_SEC,
+                        NOW_SEC));
+    }
+
+    public void testLeastRecentlySyncedFirst() {
+        MoreAsserts.assertEquals(new League[] { LEAGUE_1, LEAGUE_3 },
+                LeagueShards.select(LEAGUES, mLastSyncTimesSec, NO_PINS, 2, SYNC_INTERVAL_SEC,
+                        NOW_SEC));
+    }
+
+    public void testNeverSyncedFirst() {
+        mLastSyncTimesSec.remove("2");
+        MoreAsserts.assertEquals(new League[] { LEAGUE_1, LEAGUE_2 },
+                LeagueShards.select(LEAGUES, mLastSyncTimesSec, NO_PINS, 2, SYNC_INTERVAL_SEC,
+                        NOW_SEC));
+    }
+
+    public void testPinnedAlwaysSelected() {
+        MoreAsserts.assertEquals(new League[] { LEAGUE_1, LEAGUE_2 },
+                LeagueShards.select(LEAGUES, mLastSyncTimesSec, Collections.singleton("2"), 2,
+                        SYNC_INTERVAL_SEC, NOW_SEC));
+    }
+
+    public void testPinnedExceedingBudget() {
+        MoreAsserts.assertEquals(new League[] { LEAGUE_2, LEAGUE_4 },
+                LeagueShards.select(LEAGUES, mLastSyncTimesSec,
+                        new HashSet<>(Arrays.asList("2", "4")), 1, SYNC_INTERVAL_SEC,
+                        NOW_SEC));
+    }
+
+    public void testStaleLeaguesExceedBudget() {
+        // With a budget of 1, a rotation through all 4 leagues takes 4 syncs.
+        long maxStalenessSec = 5 * SYNC_INTERVAL_SEC;
+        assertEquals(maxStalenessSec, LeagueShards.getMaxStalenessSec(4, 1, SYNC_INTERVAL_SEC));
+        mLastSyncTimesSec.put("3", NOW_SEC - maxStalenessSec);
+        mLastSyncTimesSec.put("4", NOW_SEC - maxStalenessSec - 1);
+        MoreAsserts.assertEquals(new League[] { LEAGUE_3, LEAGUE_4 },
+                LeagueShards.select(LEAGUES, mLastSyncTimesSec, NO_PINS, 1, SYNC_INTERVAL_SEC,
+                        NOW_SEC));
+    }
+
+    /**
+     * Leagues which are waiting their turn in a rotation that takes longer than an hour shouldn't
+     * count as stale, or every sync would exceed the budget.
+     */
+    public void testRotationLongerThanAnHourStaysWithinBudget() {
+        // Each league's turn comes every 4 syncs, i.e. every 2 hours.
+        mLastSyncTimesSec.put("1", NOW_SEC - 4 * SYNC_INTERVAL_SEC);
+        mLastSyncTimesSec.put("2", NOW_SEC - SYNC_INTERVAL_SEC);
+        mLastSyncTimesSec.put("3", NOW_SEC - 3 * SYNC_INTERVAL_SEC);
+        mLastSyncTimesSec.put("4", NOW_SEC - 2 * SYNC_INTERVAL_SEC);
+        MoreAsserts.assertEquals(new League[] { LEAGUE_1 },
+                LeagueShards.select(LEAGUES, mLastSyncTimesSec, NO_PINS, 1, SYNC_INTERVAL_SEC,
+                        NOW_SEC));
+    }
+
+    public void testMaxStalenessWithPinsFillingBudget() {
+        // Only staleness rotates the unpinned leagues, one per sync.
+        assertEquals(4 * SYNC_INTERVAL_SEC,
+                LeagueShards.getMaxStalenessSec(3, 0, SYNC_INTERVAL_SEC));
+    }
+
+    /** Repeated syncs should rotate through every league. */
+    public void testRotation() {
+        long timeSec = NOW_SEC;
+        Set<String> synced = new HashSet<>();
+        for (int i = 0; i < 2; i++) {
+            for (League league : LeagueShards.select(
+                    LEAGUES, mLastSyncTimesSec, NO_PINS, 2, SYNC_INTERVAL_SEC, timeSec)) {
+                synced.add(league.league_key);
+                mLastSyncTimesSec.put(league.league_key, timeSec);
+            }
+            timeSec += 60;
+        }
+        assertEquals(4, synced.size());
+    }
+}
@@ -0,0 +1,111 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.accounts.Account;
+
+import com.jeffpdavidson.fantasywear.api.model.League;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class SyncCoordinatorTest extends TestCase {
+    private static final Account ACCOUNT = new Account("name", "type");
+    private static final League LEAGUE = new League.Builder().league_key("key").build();
+    private static final League OTHER_LEAGUE = new League.Builder().league_key("other").build();
+
+    private SyncCoordinator mCoordinator;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        mCoordinator = new SyncCoordinator();
+    }
+
+    public void testAttachesToRunningSession() {
+        SyncCoordinator.Session session = mCoordinator.startOrAttach(false);
+        assertNotNull(session);
+        assertNull(mCoordinator.startOrAttach(false));
+        assertNull(mCoordinator.finish(session));
+        assertNotNull(mCoordinator.startOrAttach(false));
+    }
+
+    public void testQueuesForcedRequest() {
+        SyncCoordinator.Session session = mCoordinator.startOrAttach(false);
+        assertFalse(session.isForced());
+        assertNull(mCoordinator.startOrAttach(true));
+        assertFalse(session.isForced());
+
+        // The forced request runs as its own session once the running one finishes.
+        SyncCoordinator.Session forcedSession = mCoordinator.finish(session);
+        assertNotNull(forcedSession);
+        assertTrue(forcedSession.isForced());
+        assertNull(mCoordinator.startOrAttach(true));
+        assertNull(mCoordinator.finish(forcedSession));
+        assertNotNull(mCoordinator.startOrAttach(false));
+    }
+
+    public void testForcedRequestSurvivesAbandon() {
+        SyncCoordinator.Session session = mCoordinator.startOrAttach(false);
+        assertNull(mCoordinator.startOrAttach(true));
+        mCoordinator.abandon(session);
+        // Not collapsed, since the forced request still needs to run.
+        session = mCoordinator.startOrAttachPeriodic();
+        assertNotNull(session);
+        assertTrue(session.isForced());
+        assertNull(mCoordinator.finish(session));
+    }
+
+    public void testStartsLeagueSession() {
+        SyncCoordinator.Session session =
+                mCoordinator.startOrAttachLeagues(ACCOUNT, new League[] { LEAGUE }, true);
+        assertTrue(session.isForced());
+        assertEquals(Collections.singletonMap(ACCOUNT, Collections.singletonList(LEAGUE)),
+                session.getLeagues());
+        assertNull(mCoordinator.startOrAttach(false));
+        assertNull(mCoordinator.finish(session));
+    }
+
+    public void testQueuesLeagueRequests() {
+        SyncCoordinator.Session session = mCoordinator.startOrAttach(false);
+        assertNull(mCoordinator.startOrAttachLeagues(ACCOUNT, new League[] { LEAGUE }, false));
+        assertNull(mCoordinator.startOrAttachLeagues(
+                ACCOUNT, new League[] { LEAGUE, OTHER_LEAGUE }, true));
+
+        // The leagues are synced together, once, after the running session.
+        SyncCoordinator.Session leagueSession = mCoordinator.finish(session);
+        assertTrue(leagueSession.isForced());
+        assertEquals(Collections.singletonMap(ACCOUNT, Arrays.asList(LEAGUE, OTHER_LEAGUE)),
+                leagueSession.getLeagues());
+        assertNull(mCoordinator.finish(leagueSession));
+    }
+
+    public void testForcedSessionCoversLeagueRequests() {
+        SyncCoordinator.Session session = mCoordinator.startOrAttach(false);
+        assertNull(mCoordinator.startOrAttachLeagues(ACCOUNT, new League[] { LEAGUE }, true));
+        assertNull(mCoordinator.startOrAttach(true));
+
+        SyncCoordinator.Session forcedSession = mCoordinator.finish(session);
+        assertTrue(forcedSession.isForced());
+        assertNull(forcedSession.getLeagues());
+        assertNull(mCoordinator.startOrAttachLeagues(ACCOUNT, new League[] { LEAGUE }, true));
+        assertNull(mCoordinator.finish(forcedSession));
+    }
+
+    public void testCollapsesPeriodicRequests() {
+        SyncCoordinator.Session session = mCoordinator.startOrAttachPeriodic();
+        assertNotNull(session);
+        assertNull(mCoordinator.startOrAttachPeriodic());
+        assertNull(mCoordinator.finish(session));
+        // Another account's periodic sync right after the session is covered by it...
+        assertNull(mCoordinator.startOrAttachPeriodic());
+        // ...but other requests still start a new session.
+        assertNotNull(mCoordinator.startOrAttach(false));
+    }
+
+    public void testAbandon() {
+        SyncCoordinator.Session session = mCoordinator.startOrAttach(true);
+        mCoordinator.abandon(session);
+        assertNotNull(mCoordinator.startOrAttach(false));
+    }
+}
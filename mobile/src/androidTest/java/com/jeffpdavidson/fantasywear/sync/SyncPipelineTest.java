@@ -0,0 +1,237 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.os.SystemClock;
+
+import com.jeffpdavidson.fantasywear.api.model.League;
+import com.jeffpdavidson.fantasywear.api.model.Matchup;
+import com.jeffpdavidson.fantasywear.log.FWLog;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class SyncPipelineTest extends TestCase {
+    private static final int NUM_LEAGUES = 10;
+    private static final int BATCH_SIZE = 25;
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    // Simulated stage latencies, roughly matching a scoreboard fetch, two logo fetches plus PNG
+    // encoding, and a putDataItem call.
+    private static final long FETCH_MS = 300;
+    private static final long PREPARE_MS = 200;
+    private static final long PUSH_MS = 100;
+
+    private ExecutorService mPrepareExecutor;
+    private ExecutorService mPushExecutor;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        mPrepareExecutor = Executors.newFixedThreadPool(2);
+        mPushExecutor = Executors.newCachedThreadPool();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        mPrepareExecutor.shutdownNow();
+        mPushExecutor.shutdownNow();
+        super.tearDown();
+    }
+
+    public void testPushesInOrder() throws Exception {
+        FakeStages stages = new FakeStages();
+        League[] leagues = createLeagues(NUM_LEAGUES);
+        SyncPipeline.Result result = new SyncPipeline<>(stages, mPrepareExecutor, mPushExecutor, 2)
+                .run(leagues, 3, NO_DEADLINE);
+        assertEquals(NUM_LEAGUES, result.numPushed);
+        assertTrue(result.deferred.isEmpty());
+        List<String> expected = new ArrayList<>();
+        for (League league : leagues) {
+            expected.add(league.league_key);
+        }
+        assertEquals(expected, stages.mPushed);
+    }
+
+    public void testSkipsUnpreparedLeagues() throws Exception {
+        FakeStages stages = new FakeStages();
+        stages.mSkippedKey = "key3";
+        SyncPipeline.Result result = new SyncPipeline<>(stages, mPrepareExecutor, mPushExecutor, 2)
+                .run(createLeagues(NUM_LEAGUES), BATCH_SIZE, NO_DEADLINE);
+        assertEquals(NUM_LEAGUES - 1, result.numPushed);
+        assertFalse(stages.mPushed.contains("key3"));
+    }
+
+    /** A league missing from its batch's matchups is prepared without one, like the others. */
+    public void testLeagueWithoutMatchup() throws Exception {
+        FakeStages stages = new FakeStages();
+        stages.mMissingMatchupKey = "key3";
+        SyncPipeline.Result result = new SyncPipeline<>(stages, mPrepareExecutor, mPushExecutor, 2)
+                .run(createLeagues(NUM_LEAGUES), BATCH_SIZE, NO_DEADLINE);
+        assertEquals(NUM_LEAGUES - 1, result.numPushed);
+        assertTrue(result.deferred.isEmpty());
+        assertFalse(stages.mPushed.contains("key3"));
+    }
+
+    public void testPrepareFailure() throws Exception {
+        FakeStages stages = new FakeStages();
+        stages.mFailedKey = "key5";
+        try {
+            new SyncPipeline<>(stages, mPrepareExecutor, mPushExecutor, 2)
+                    .run(createLeagues(NUM_LEAGUES), BATCH_SIZE, NO_DEADLINE);
+            fail("Expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertFalse(stages.mPushed.contains("key5"));
+    }
+
+    public void testOrdersBatches() throws Exception {
+        FakeStages stages = new FakeStages();
+        stages.mReverseOrder = true;
+        League[] leagues = createLeagues(4);
+        new SyncPipeline<>(stages, mPrepareExecutor, mPushExecutor, 2)
+                .run(leagues, 2, NO_DEADLINE);
+        assertEquals(Arrays.asList("key1", "key0", "key3", "key2"), stages.mPushed);
+    }
+
+    public void testDefersLeaguesAfterDeadline() throws Exception {
+        FakeStages stages = new FakeStages();
+        stages.mSimulateLatency = true;
+        League[] leagues = createLeagues(NUM_LEAGUES);
+        // The first batch arrives in time to be prepared, but the second arrives too late.
+        long deadlineMs = SystemClock.elapsedRealtime() + FETCH_MS + FETCH_MS / 2;
+        SyncPipeline.Result result = new SyncPipeline<>(stages, mPrepareExecutor, mPushExecutor,
+                NUM_LEAGUES).run(leagues, NUM_LEAGUES / 2, deadlineMs);
+        assertEquals(NUM_LEAGUES / 2, result.numPushed);
+        assertEquals(Arrays.asList(leagues).subList(NUM_LEAGUES / 2, NUM_LEAGUES),
+                result.deferred);
+    }
+
+    public void testDefersTimedOutFetch() throws Exception {
+        FakeStages stages = new FakeStages();
+        stages.mTimedOutFetchKey = "key0";
+        League[] leagues = createLeagues(4);
+        SyncPipeline.Result result = new SyncPipeline<>(stages, mPrepareExecutor, mPushExecutor, 2)
+                .run(leagues, 2, NO_DEADLINE);
+        assertEquals(2, result.numPushed);
+        assertEquals(Arrays.asList(leagues).subList(0, 2), result.deferred);
+        assertEquals(Arrays.asList("key2", "key3"), stages.mPushed);
+    }
+
+    public void testDefersTimedOutPrepare() throws Exception {
+        FakeStages stages = new FakeStages();
+        stages.mTimedOutPrepareKey = "key3";
+        League[] leagues = createLeagues(NUM_LEAGUES);
+        SyncPipeline.Result result = new SyncPipeline<>(stages, mPrepareExecutor, mPushExecutor, 2)
+                .run(leagues, BATCH_SIZE, NO_DEADLINE);
+        assertEquals(NUM_LEAGUES - 1, result.numPushed);
+        assertEquals(Collections.singletonList(leagues[3]), result.deferred);
+        assertFalse(stages.mPushed.contains("key3"));
+    }
+
+    /**
+     * Compare the wall-clock time for a simulated 10-league sync against running the same stages
+     * sequentially for each league.
+     */
+    public void testOverlapsStages() throws Exception {
+        FakeStages stages = new FakeStages();
+        stages.mSimulateLatency = true;
+        long startMs = SystemClock.elapsedRealtime();
+        new SyncPipeline<>(stages, mPrepareExecutor, mPushExecutor, 4)
+                .run(createLeagues(NUM_LEAGUES), BATCH_SIZE, NO_DEADLINE);
+        long pipelinedMs = SystemClock.elapsedRealtime() - startMs;
+
+        // The equivalent of fetching each league's scoreboard, then its logos, then pushing it.
+        long sequentialMs = NUM_LEAGUES * (FETCH_MS + PREPARE_MS + PUSH_MS);
+        // One batched fetch, then two leagues prepared at a time, with pushes overlapping the
+        // remaining prepares.
+        long idealMs = FETCH_MS + (NUM_LEAGUES / 2) * PREPARE_MS + PUSH_MS;
+        FWLog.i("%d leagues: pipelined %d ms, ideal %d ms, sequential %d ms",
+                NUM_LEAGUES, pipelinedMs, idealMs, sequentialMs);
+        assertTrue("Pipelined sync took " + pipelinedMs + " ms",
+                pipelinedMs < idealMs + (sequentialMs - idealMs) / 2);
+    }
+
+    private static League[] createLeagues(int count) {
+        League[] leagues = new League[count];
+        for (int i = 0; i < count; i++) {
+            leagues[i] = new League.Builder().league_key("key" + i).build();
+        }
+        return leagues;
+    }
+
+    private static class FakeStages implements SyncPipeline.Stages<String> {
+        boolean mSimulateLatency;
+        boolean mReverseOrder;
+        String mSkippedKey;
+        String mFailedKey;
+        String mTimedOutFetchKey;
+        String mTimedOutPrepareKey;
+        String mMissingMatchupKey;
+        final List<String> mPushed = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public Map<String, Matchup> fetch(League[] leagues) throws Exception {
+            sleep(FETCH_MS);
+            Map<String, Matchup> matchups = new HashMap<>();
+            for (League league : leagues) {
+                if (league.league_key.equals(mTimedOutFetchKey)) {
+                    return null;
+                }
+                if (!league.league_key.equals(mMissingMatchupKey)) {
+                    matchups.put(league.league_key, new Matchup.Builder().build());
+                }
+            }
+            return matchups;
+        }
+
+        @Override
+        public League[] order(League[] leagues, Map<String, Matchup> matchups) {
+            if (!mReverseOrder) {
+                return leagues;
+            }
+            List<League> reversed = new ArrayList<>(Arrays.asList(leagues));
+            Collections.reverse(reversed);
+            return reversed.toArray(new League[reversed.size()]);
+        }
+
+        @Override
+        public String prepare(League league, Matchup matchup) throws Exception {
+            if (league.league_key.equals(mMissingMatchupKey)) {
+                // As SyncAdapter does, fail just this league.
+                assertNull(matchup);
+                return null;
+            }
+            assertNotNull(matchup);
+            sleep(PREPARE_MS);
+            if (league.league_key.equals(mFailedKey)) {
+                throw new IOException("Failed to prepare " + league.league_key);
+            }
+            if (league.league_key.equals(mTimedOutPrepareKey)) {
+                throw new SyncPipeline.DeadlineExceededException();
+            }
+            return league.league_key.equals(mSkippedKey) ? null : league.league_key;
+        }
+
+        @Override
+        public void push(String prepared) throws Exception {
+            sleep(PUSH_MS);
+            mPushed.add(prepared);
+        }
+
+        private void sleep(long ms) throws InterruptedException {
+            if (mSimulateLatency) {
+                Thread.sleep(ms);
+            }
+        }
+    }
+}
@@ -27,6 +27,7 @@ import com.jeffpdavidson.fantasywear.api.model.Team;
 import com.jeffpdavidson.fantasywear.log.FWLog;
 import com.jeffpdavidson.fantasywear.protocol.LeagueData;
 import com.jeffpdavidson.fantasywear.sync.SyncAdapter;
+import com.jeffpdavidson.fantasywear.util.WearableConnection;
 
 /** Activity to send demo data to wear for debugging purposes. */
 public class DemoActivity extends ActionBarActivity implements OnClickListener, ErrorListener {
@@ -51,10 +52,7 @@ public class DemoActivity extends ActionBarActivity implements OnClickListener,
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_demo);
 
-        mGoogleApiClient = new GoogleApiClient.Builder(this)
-                .addApi(Wearable.API)
-                .build();
-        mGoogleApiClient.connect();
+        mGoogleApiClient = WearableConnection.getInstance(this).acquire();
 
         mOppName = (EditText) findViewById(R.id.opp_name);
         mScore = (EditText) findViewById(R.id.score);
@@ -69,8 +67,8 @@ public class DemoActivity extends ActionBarActivity implements OnClickListener,
 
     @Override
     public void onDestroy() {
-        Volley.getInstance(this).getRequestQueue().cancelAll(TAG);
-        mGoogleApiClient.disconnect();
+        Volley.getInstance(this).cancelAll(TAG);
+        WearableConnection.getInstance(this).release();
         super.onDestroy();
     }
 
@@ -79,9 +77,15 @@ public class DemoActivity extends ActionBarActivity implements OnClickListener,
         ImageRequest logoReq = new ImageRequest(mLogoUrl.getText().toString(),
                 new Listener<Bitmap>() {
                     @Override
-                    public void onResponse(Bitmap bitmap) {
-                        mLogo = bitmap;
-                        onLogoFetchComplete();
+                    public void onResponse(final Bitmap bitmap) {
+                        // Image responses are delivered on a background thread.
+                        runOnUiThread(new Runnable() {
+                            @Override
+                            public void run() {
+                                mLogo = bitmap;
+                                onLogoFetchComplete();
+                            }
+                        });
                     }
                 }, mLogoSize, mLogoSize, Bitmap.Config.ARGB_8888, this);
         logoReq.setTag(TAG);
@@ -89,15 +93,21 @@ public class DemoActivity extends ActionBarActivity implements OnClickListener,
         ImageRequest oppLogoReq = new ImageRequest(mOppLogoUrl.getText().toString(),
                 new Listener<Bitmap>() {
                     @Override
-                    public void onResponse(Bitmap bitmap) {
-                        mOppLogo = bitmap;
-                        onLogoFetchComplete();
+                    public void onResponse(final Bitmap bitmap) {
+                        // Image responses are delivered on a background thread.
+                        runOnUiThread(new Runnable() {
+                            @Override
+                            public void run() {
+                                mOppLogo = bitmap;
+                                onLogoFetchComplete();
+                            }
+                        });
                     }
                 }, mLogoSize, mLogoSize, Bitmap.Config.ARGB_8888, this);
         oppLogoReq.setTag(TAG);
 
-        Volley.getInstance(this).getRequestQueue().add(logoReq);
-        Volley.getInstance(this).getRequestQueue().add(oppLogoReq);
+        Volley.getInstance(this).getImageRequestQueue().add(logoReq);
+        Volley.getInstance(this).getImageRequestQueue().add(oppLogoReq);
     }
 
     private void onLogoFetchComplete() {
@@ -136,6 +146,12 @@ public class DemoActivity extends ActionBarActivity implements OnClickListener,
     @Override
     public void onErrorResponse(VolleyError volleyError) {
         FWLog.e(volleyError, "Error fetching logo");
-        Toast.makeText(this, "Error fetching logo", Toast.LENGTH_SHORT).show();
+        runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                Toast.makeText(DemoActivity.this, "Error fetching logo", Toast.LENGTH_SHORT)
+                        .show();
+            }
+        });
     }
 }
@@ -29,8 +29,12 @@ import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
 import com.jeffpdavidson.fantasywear.api.auth.AccountAuthenticator;
 import com.jeffpdavidson.fantasywear.api.model.League;
 import com.jeffpdavidson.fantasywear.fragments.AccountInfoDialogFragment;
+import com.jeffpdavidson.fantasywear.fragments.PinnedLeaguesDialogFragment;
 import com.jeffpdavidson.fantasywear.fragments.SyncIntervalDialogFragment;
+import com.jeffpdavidson.fantasywear.fragments.SyncLeagueBudgetDialogFragment;
 import com.jeffpdavidson.fantasywear.storage.LeagueTable;
+import com.jeffpdavidson.fantasywear.storage.Preferences;
+import com.jeffpdavidson.fantasywear.sync.LiveModeService;
 import com.jeffpdavidson.fantasywear.sync.SyncAdapter;
 
 import java.util.ArrayList;
@@ -53,6 +57,9 @@ public class MainActivity extends ActionBarActivity implements
     private AccountAdapter mAccountAdapter;
     private Button mAddAccountButton;
 
+    /** The most recently loaded leagues, or null if they haven't been loaded yet. */
+    private League[] mLeagues;
+
     /**
      * If true, we are currently showing the accounts list.
      * Otherwise, we are showing the leagues list.
@@ -107,6 +114,8 @@ public class MainActivity extends ActionBarActivity implements
 
     @Override
     public void onLoadFinished(Loader<League[]> loader, League[] leagues) {
+        mLeagues = leagues;
+
         // Update the adapters.
         mAccountAdapter.setLeagues(leagues);
         mLeagueAdapter.clear();
@@ -145,6 +154,14 @@ public class MainActivity extends ActionBarActivity implements
             item.setTitle(R.string.accounts);
         }
         item.setEnabled(mListFragment.getListAdapter() != null);
+        menu.findItem(R.id.pinned_leagues).setEnabled(mLeagues != null && mLeagues.length > 0);
+        boolean useJobScheduler = Preferences.getUseJobScheduler(this);
+        menu.findItem(R.id.use_job_scheduler).setChecked(useJobScheduler);
+        // Network constraints are only supported by JobScheduler.
+        menu.findItem(R.id.sync_on_unmetered_only)
+                .setChecked(Preferences.getSyncOnUnmeteredOnly(this))
+                .setEnabled(useJobScheduler);
+        menu.findItem(R.id.live_mode).setChecked(LiveModeService.isRunning());
         return super.onPrepareOptionsMenu(menu);
     }
 
@@ -163,6 +180,28 @@ public class MainActivity extends ActionBarActivity implements
         } else if (itemId == R.id.sync_interval) {
             SyncIntervalDialogFragment.show(getSupportFragmentManager());
             return true;
+        } else if (itemId == R.id.sync_league_budget) {
+            SyncLeagueBudgetDialogFragment.show(getSupportFragmentManager());
+            return true;
+        } else if (itemId == R.id.pinned_leagues) {
+            PinnedLeaguesDialogFragment.show(getSupportFragmentManager(), mLeagues);
+            return true;
+        } else if (itemId == R.id.use_job_scheduler) {
+            Preferences.setUseJobScheduler(this, !item.isChecked());
+            supportInvalidateOptionsMenu();
+            return true;
+        } else if (itemId == R.id.sync_on_unmetered_only) {
+            Preferences.setSyncOnUnmeteredOnly(this, !item.isChecked());
+            supportInvalidateOptionsMenu();
+            return true;
+        } else if (itemId == R.id.live_mode) {
+            if (item.isChecked()) {
+                LiveModeService.stop(this);
+            } else {
+                LiveModeService.start(this);
+            }
+            supportInvalidateOptionsMenu();
+            return true;
         }
         return super.onOptionsItemSelected(item);
     }
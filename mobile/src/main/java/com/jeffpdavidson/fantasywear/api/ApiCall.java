@@ -0,0 +1,46 @@
+package com.jeffpdavidson.fantasywear.api;
+
+import com.android.volley.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handle to an asynchronous API call, which is made up of one or more Volley requests.
+ *
+ * Cancelling the call cancels each of its requests, after which neither of its listeners will be
+ * called. A call's requests all carry the tag it was made with, so calls can also be cancelled in
+ * bulk with {@link Volley#cancelAll(Object)}.
+ */
+public final class ApiCall {
+    private final List<Request<?>> mRequests = new ArrayList<>();
+    private boolean mCanceled;
+
+    ApiCall() {}
+
+    /** Create a call consisting of the given request. */
+    public static ApiCall of(Request<?> request) {
+        ApiCall call = new ApiCall();
+        call.add(request);
+        return call;
+    }
+
+    /** Add a request to the call, cancelling it right away if the call has been cancelled. */
+    synchronized void add(Request<?> request) {
+        mRequests.add(request);
+        if (mCanceled) {
+            request.cancel();
+        }
+    }
+
+    public synchronized void cancel() {
+        mCanceled = true;
+        for (Request<?> request : mRequests) {
+            request.cancel();
+        }
+    }
+
+    public synchronized boolean isCanceled() {
+        return mCanceled;
+    }
+}
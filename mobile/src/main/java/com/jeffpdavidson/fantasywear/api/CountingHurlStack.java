@@ -0,0 +1,209 @@
+package com.jeffpdavidson.fantasywear.api;
+
+import android.net.Uri;
+
+import com.android.volley.AuthFailureError;
+import com.android.volley.Request;
+import com.android.volley.toolbox.HurlStack;
+import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
+
+import org.apache.http.HttpResponse;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * {@link HurlStack} which counts the requests it makes to each origin (scheme and host), and the
+ * TLS connections it opens for them, so that connection reuse can be measured.
+ *
+ * Connections are pooled by {@link java.net.HttpURLConnection}, which reuses an idle keep-alive
+ * connection to the same host when it has one, and only asks the SSL socket factory for a socket
+ * when it opens a new connection. The stack gives every request the same counting factory, which
+ * wraps the platform default; since the pool only shares connections between requests with the
+ * same factory, this keeps connections shared across all of the app's queues.
+ *
+ * Plain HTTP connections are opened by the platform's own socket factory, which can't be replaced
+ * for a single connection, so only their requests are counted. Every API request is made over
+ * HTTPS.
+ */
+public final class CountingHurlStack extends HurlStack {
+    /** Requests made, keyed by origin. */
+    private final ConcurrentMap<String, AtomicInteger> mRequests = new ConcurrentHashMap<>();
+    private final CountingSSLSocketFactory mSocketFactory;
+
+    /** Request and connection counts, keyed by origin, e.g. "https://example.com". */
+    public static final class Stats {
+        /** The requests made, including failures. */
+        public final Map<String, Integer> requests;
+
+        /**
+         * The TLS connections opened. Plain HTTP origins are absent; see
+         * {@link CountingHurlStack}.
+         */
+        public final Map<String, Integer> connectionsOpened;
+
+        @VisibleForTesting
+        Stats(Map<String, Integer> requests, Map<String, Integer> connectionsOpened) {
+            this.requests = Collections.unmodifiableMap(requests);
+            this.connectionsOpened = Collections.unmodifiableMap(connectionsOpened);
+        }
+
+        /**
+         * Get the number of requests to the given origin which reused an open connection, or -1 if
+         * its connections aren't counted because it is plain HTTP.
+         */
+        public int getConnectionsReused(String origin) {
+            if (!origin.startsWith("https:")) {
+                return -1;
+            }
+            return Math.max(0, get(requests, origin) - get(connectionsOpened, origin));
+        }
+
+        /** Get the counts since an earlier snapshot of the same stack. */
+        public Stats since(Stats earlier) {
+            return new Stats(subtract(requests, earlier.requests),
+                    subtract(connectionsOpened, earlier.connectionsOpened));
+        }
+
+        private static Map<String, Integer> subtract(Map<String, Integer> counts,
+                Map<String, Integer> earlierCounts) {
+            Map<String, Integer> difference = new HashMap<>();
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                int count = entry.getValue() - get(earlierCounts, entry.getKey());
+                if (count > 0) {
+                    difference.put(entry.getKey(), count);
+                }
+            }
+            return difference;
+        }
+
+        private static int get(Map<String, Integer> counts, String origin) {
+            Integer count = counts.get(origin);
+            return count != null ? count : 0;
+        }
+    }
+
+    public CountingHurlStack() {
+        this(new CountingSSLSocketFactory(HttpsURLConnection.getDefaultSSLSocketFactory()));
+    }
+
+    private CountingHurlStack(CountingSSLSocketFactory socketFactory) {
+        super(null, socketFactory);
+        mSocketFactory = socketFactory;
+    }
+
+    @Override
+    public HttpResponse performRequest(Request<?> request, Map<String, String> additionalHeaders)
+            throws IOException, AuthFailureError {
+        Uri uri = Uri.parse(request.getUrl());
+        increment(mRequests, uri.getScheme() + "://" + uri.getHost());
+        return super.performRequest(request, additionalHeaders);
+    }
+
+    /** Get the counts since the stack was created. */
+    public Stats getStats() {
+        return new Stats(snapshot(mRequests), mSocketFactory.getSocketsCreated());
+    }
+
+    private static void increment(ConcurrentMap<String, AtomicInteger> counts, String key) {
+        AtomicInteger count = counts.get(key);
+        if (count == null) {
+            AtomicInteger newCount = new AtomicInteger();
+            count = counts.putIfAbsent(key, newCount);
+            if (count == null) {
+                count = newCount;
+            }
+        }
+        count.incrementAndGet();
+    }
+
+    private static Map<String, Integer> snapshot(Map<String, AtomicInteger> counts) {
+        Map<String, Integer> snapshot = new HashMap<>();
+        for (Map.Entry<String, AtomicInteger> entry : counts.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().get());
+        }
+        return snapshot;
+    }
+
+    /**
+     * {@link SSLSocketFactory} which counts the sockets created by another factory, keyed by
+     * origin. Unconnected sockets, whose host isn't known yet, aren't counted;
+     * {@link HttpsURLConnection} doesn't create them.
+     */
+    @VisibleForTesting
+    static final class CountingSSLSocketFactory extends SSLSocketFactory {
+        private final SSLSocketFactory mDelegate;
+        private final ConcurrentMap<String, AtomicInteger> mSocketsCreated =
+                new ConcurrentHashMap<>();
+
+        CountingSSLSocketFactory(SSLSocketFactory delegate) {
+            mDelegate = delegate;
+        }
+
+        Map<String, Integer> getSocketsCreated() {
+            return snapshot(mSocketsCreated);
+        }
+
+        private void count(String host) {
+            increment(mSocketsCreated, "https://" + host);
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return mDelegate.getDefaultCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return mDelegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public Socket createSocket() throws IOException {
+            return mDelegate.createSocket();
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, String host, int port, boolean autoClose)
+                throws IOException {
+            count(host);
+            return mDelegate.createSocket(socket, host, port, autoClose);
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            count(host);
+            return mDelegate.createSocket(host, port);
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort)
+                throws IOException {
+            count(host);
+            return mDelegate.createSocket(host, port, localHost, localPort);
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            count(host.getHostName());
+            return mDelegate.createSocket(host, port);
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress,
+                int localPort) throws IOException {
+            count(address.getHostName());
+            return mDelegate.createSocket(address, port, localAddress, localPort);
+        }
+    }
+}
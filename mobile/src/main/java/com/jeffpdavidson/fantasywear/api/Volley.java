@@ -1,22 +1,87 @@
 package com.jeffpdavidson.fantasywear.api;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 
+import com.android.volley.Cache;
+import com.android.volley.ExecutorDelivery;
 import com.android.volley.NetworkResponse;
 import com.android.volley.Request;
 import com.android.volley.RequestQueue;
+import com.android.volley.ResponseDelivery;
+import com.android.volley.TimeoutError;
 import com.android.volley.VolleyError;
+import com.android.volley.toolbox.BasicNetwork;
+import com.android.volley.toolbox.DiskBasedCache;
+import com.android.volley.toolbox.NoCache;
 import com.android.volley.toolbox.RequestFuture;
 
+import java.io.File;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Holder for the app's Volley request queues.
+ *
+ * API requests go to one of two queues: the main queue delivers responses on the main thread, for
+ * requests made by the UI, while the background queue delivers them on a background thread, so
+ * that requests made by syncs and other background work don't wait for the main thread to be free
+ * to receive their responses. Neither caches responses, since API responses are specific to the
+ * signed-in user and must always be fresh.
+ *
+ * OAuth token requests go to their own auth queue, which also delivers responses on a background
+ * thread. API requests may block their network thread on a token refresh while their headers are
+ * built, so if token requests shared a queue with them, a burst of requests needing a refresh could
+ * take up every network thread and wait forever for a token request which has no thread to run on.
+ *
+ * Images go to a separate image queue, with its own network threads and a size-limited disk cache,
+ * so that a burst of image downloads never holds up API requests. Its responses are also delivered
+ * on a background thread.
+ *
+ * All queues share a single {@link CountingHurlStack}, so connections to each host are reused
+ * across queues and requests.
+ */
 public class Volley {
+    private static final int MAIN_NETWORK_THREAD_POOL_SIZE = 2;
+    private static final int BACKGROUND_NETWORK_THREAD_POOL_SIZE = 4;
+    private static final int IMAGE_NETWORK_THREAD_POOL_SIZE = 2;
+    private static final int AUTH_NETWORK_THREAD_POOL_SIZE = 2;
+
+    private static final String IMAGE_CACHE_DIR = "volley-images";
+    private static final int IMAGE_CACHE_MAX_BYTES = 10 * 1024 * 1024;
+
     private static volatile Volley sInstance;
 
+    private final CountingHurlStack mHttpStack = new CountingHurlStack();
     private final RequestQueue mRequestQueue;
+    private final RequestQueue mBackgroundRequestQueue;
+    private final RequestQueue mImageRequestQueue;
+    private final RequestQueue mAuthRequestQueue;
 
     private Volley(Context context) {
-        mRequestQueue = com.android.volley.toolbox.Volley.newRequestQueue(context);
+        mRequestQueue = newRequestQueue(new NoCache(), MAIN_NETWORK_THREAD_POOL_SIZE,
+                new ExecutorDelivery(new Handler(Looper.getMainLooper())));
+        mBackgroundRequestQueue = newRequestQueue(new NoCache(),
+                BACKGROUND_NETWORK_THREAD_POOL_SIZE,
+                new ExecutorDelivery(Executors.newSingleThreadExecutor()));
+        mImageRequestQueue = newRequestQueue(
+                new DiskBasedCache(new File(context.getCacheDir(), IMAGE_CACHE_DIR),
+                        IMAGE_CACHE_MAX_BYTES),
+                IMAGE_NETWORK_THREAD_POOL_SIZE,
+                new ExecutorDelivery(Executors.newSingleThreadExecutor()));
+        mAuthRequestQueue = newRequestQueue(new NoCache(), AUTH_NETWORK_THREAD_POOL_SIZE,
+                new ExecutorDelivery(Executors.newSingleThreadExecutor()));
+    }
+
+    private RequestQueue newRequestQueue(Cache cache, int threadPoolSize,
+            ResponseDelivery delivery) {
+        RequestQueue queue = new RequestQueue(cache, new BasicNetwork(mHttpStack), threadPoolSize,
+                delivery);
+        queue.start();
+        return queue;
     }
 
     public static Volley getInstance(Context context) {
@@ -30,21 +95,108 @@ public class Volley {
         return sInstance;
     }
 
+    /** Get the API queue whose responses are delivered on the main thread. */
     public RequestQueue getRequestQueue() {
         return mRequestQueue;
     }
 
+    /**
+     * Get the API queue whose responses are delivered on a background thread. Listeners of its
+     * requests must not touch the UI, and must be thread-safe if they share state with other
+     * threads.
+     */
+    public RequestQueue getBackgroundRequestQueue() {
+        return mBackgroundRequestQueue;
+    }
+
+    /**
+     * Get the API queue for requests made from the calling thread: the main queue on the main
+     * thread, and the background queue anywhere else.
+     */
+    public RequestQueue getRequestQueueForCurrentThread() {
+        return Looper.myLooper() == Looper.getMainLooper()
+                ? mRequestQueue : mBackgroundRequestQueue;
+    }
+
+    /**
+     * Get the queue for image requests, whose responses are delivered on a background thread.
+     * Listeners of its requests must not touch the UI.
+     */
+    public RequestQueue getImageRequestQueue() {
+        return mImageRequestQueue;
+    }
+
+    /**
+     * Get the queue for OAuth token requests, whose responses are delivered on a background
+     * thread. Listeners of its requests must not touch the UI.
+     */
+    public RequestQueue getAuthRequestQueue() {
+        return mAuthRequestQueue;
+    }
+
+    /** Get the HTTP stack shared by every queue, e.g. to read its connection counters. */
+    public CountingHurlStack getHttpStack() {
+        return mHttpStack;
+    }
+
+    /** Cancel all requests with the given tag in every queue. */
+    public void cancelAll(Object tag) {
+        mRequestQueue.cancelAll(tag);
+        mBackgroundRequestQueue.cancelAll(tag);
+        mImageRequestQueue.cancelAll(tag);
+        mAuthRequestQueue.cancelAll(tag);
+    }
+
     public static boolean isClientError(NetworkResponse response) {
         return response != null && (response.statusCode >= 400 || response.statusCode < 499);
     }
 
-    public static <T> T makeBlockingRequest(Context context, Request<T> request,
-            RequestFuture<T> future) throws VolleyError, InterruptedException {
-        Volley.getInstance(context).getRequestQueue().add(request);
+    /**
+     * Add a request to the queue for the calling thread (see
+     * {@link #getRequestQueueForCurrentThread}), returning a handle with which it can be cancelled.
+     */
+    public static ApiCall makeRequest(Context context, Request<?> request) {
+        Volley.getInstance(context).getRequestQueueForCurrentThread().add(request);
+        return ApiCall.of(request);
+    }
+
+    /**
+     * Add an OAuth token request to the auth queue (see {@link #getAuthRequestQueue}), returning a
+     * handle with which it can be cancelled.
+     */
+    public static ApiCall makeAuthRequest(Context context, Request<?> request) {
+        Volley.getInstance(context).getAuthRequestQueue().add(request);
+        return ApiCall.of(request);
+    }
+
+    /**
+     * Block until the response to a call made with the given future as both of its listeners
+     * arrives. This is how the blocking API methods wrap the asynchronous ones; it must not be
+     * called on the main thread. Since the call is made off the main thread, its response is
+     * delivered on a background thread, so waiting never depends on the main thread being free.
+     */
+    public static <T> T awaitResponse(RequestFuture<T> future)
+            throws VolleyError, InterruptedException {
         try {
             return future.get();
         } catch (ExecutionException e) {
             throw (VolleyError) e.getCause();
         }
     }
+
+    /**
+     * Like {@link #awaitResponse(RequestFuture)}, but gives up after the given timeout, canceling
+     * the call and throwing a {@link TimeoutError}.
+     */
+    public static <T> T awaitResponse(ApiCall call, RequestFuture<T> future, long timeoutMs)
+            throws VolleyError, InterruptedException {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw (VolleyError) e.getCause();
+        } catch (TimeoutException e) {
+            call.cancel();
+            throw new TimeoutError();
+        }
+    }
 }
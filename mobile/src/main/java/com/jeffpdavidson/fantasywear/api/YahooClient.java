@@ -14,17 +14,27 @@ import com.jeffpdavidson.fantasywear.api.model.League;
 import com.jeffpdavidson.fantasywear.api.model.Matchup;
 import com.jeffpdavidson.fantasywear.api.parser.LeagueParser;
 import com.jeffpdavidson.fantasywear.api.parser.ScoreboardParser;
+import com.jeffpdavidson.fantasywear.api.parser.ScoreboardParser.MultiLeagueScoreboard;
+import com.jeffpdavidson.fantasywear.api.parser.TeamLogoParser;
 import com.jeffpdavidson.fantasywear.util.Util;
 
 import java.io.StringReader;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Client for making calls to Yahoo's fantasy APIs.
+ *
+ * Each API has an asynchronous method, which delivers the response to the given listeners on the
+ * main thread if called from it and on a background thread otherwise, and returns an
+ * {@link ApiCall} with which it can be cancelled, and a blocking wrapper, which must be called
+ * from a background thread. Every request made for a call carries the given tag, so in-flight
+ * calls may also be cancelled by calling {@link Volley#cancelAll(Object)} with it.
  */
 public final class YahooClient {
     private abstract static class YahooApiRequest<T> extends OAuthApiRequest<T> {
         private static final Uri BASE_ENDPOINT =
-                Uri.parse("http://fantasysports.yahooapis.com/fantasy/v2/");
+                Uri.parse("https://fantasysports.yahooapis.com/fantasy/v2/");
 
         public YahooApiRequest(Context context, String endpoint, Account account,
                 Listener<T> listener, ErrorListener errorListener) {
@@ -33,37 +43,270 @@ public final class YahooClient {
         }
     }
 
+    /**
+     * Maximum number of leagues to include in a single batched request, to keep URLs to a
+     * reasonable length.
+     */
+    public static final int MAX_LEAGUES_PER_REQUEST = 25;
+
     private YahooClient() {}
 
     /** Get all active leagues for the given user. */
-    public static League[] blockingGetLeagues(Context context, Object tag, Account account)
-            throws VolleyError, InterruptedException {
-        Util.assertNotOnMainThread();
-        RequestFuture<League[]> future = RequestFuture.newFuture();
+    public static ApiCall getLeagues(Context context, Object tag, Account account,
+            Listener<League[]> listener, ErrorListener errorListener) {
         YahooApiRequest<League[]> request = new YahooApiRequest<League[]>(context,
-                "users;use_login=1/games;is_available=1/leagues", account, future, future) {
+                "users;use_login=1/games;is_available=1/leagues", account, listener,
+                errorListener) {
             @Override
             protected League[] parseResponse(String response) throws ParseError {
                 return LeagueParser.parseXml(new StringReader(response));
             }
         };
         request.setTag(tag);
-        return Volley.makeBlockingRequest(context, request, future);
+        return Volley.makeRequest(context, request);
+    }
+
+    /** Blocking version of {@link #getLeagues}. */
+    public static League[] blockingGetLeagues(Context context, Object tag, Account account)
+            throws VolleyError, InterruptedException {
+        Util.assertNotOnMainThread();
+        RequestFuture<League[]> future = RequestFuture.newFuture();
+        getLeagues(context, tag, account, future, future);
+        return Volley.awaitResponse(future);
     }
 
     /** Get the current matchup for the given user and league. */
+    public static ApiCall getMatchup(Context context, Object tag, Account account, League league,
+            Listener<Matchup> listener, ErrorListener errorListener) {
+        return getMatchup(context, tag, account, league, "", listener, errorListener);
+    }
+
+    /**
+     * Blocking version of
+     * {@link #getMatchup(Context, Object, Account, League, Listener, ErrorListener)}.
+     */
     public static Matchup blockingGetMatchup(Context context, Object tag, Account account,
             League league) throws VolleyError, InterruptedException {
         Util.assertNotOnMainThread();
         RequestFuture<Matchup> future = RequestFuture.newFuture();
+        getMatchup(context, tag, account, league, future, future);
+        return Volley.awaitResponse(future);
+    }
+
+    /**
+     * Get the matchup for the given user and league in the given week, e.g. to archive a completed
+     * week's final scoreboard.
+     */
+    public static ApiCall getMatchup(Context context, Object tag, Account account, League league,
+            int week, Listener<Matchup> listener, ErrorListener errorListener) {
+        return getMatchup(context, tag, account, league, ";week=" + week, listener,
+                errorListener);
+    }
+
+    /**
+     * Blocking version of {@link #getMatchup(Context, Object, Account, League, int, Listener,
+     * ErrorListener)}.
+     *
+     * @param timeoutMs the time allowed for the request, after which a
+     *                  {@link com.android.volley.TimeoutError} is thrown
+     */
+    public static Matchup blockingGetMatchup(Context context, Object tag, Account account,
+            League league, int week, long timeoutMs) throws VolleyError, InterruptedException {
+        Util.assertNotOnMainThread();
+        RequestFuture<Matchup> future = RequestFuture.newFuture();
+        ApiCall call = getMatchup(context, tag, account, league, week, future, future);
+        return Volley.awaitResponse(call, future, timeoutMs);
+    }
+
+    private static ApiCall getMatchup(Context context, Object tag, Account account,
+            League league, String weekParam, Listener<Matchup> listener,
+            ErrorListener errorListener) {
         YahooApiRequest<Matchup> request = new YahooApiRequest<Matchup>(context,
-                "league/" + league.league_key + "/scoreboard", account, future, future) {
+                "league/" + league.league_key + "/scoreboard" + weekParam, account, listener,
+                errorListener) {
             @Override
             protected Matchup parseResponse(String response) throws ParseError {
                 return ScoreboardParser.parseXml(new StringReader(response));
             }
         };
         request.setTag(tag);
-        return Volley.makeBlockingRequest(context, request, future);
+        return Volley.makeRequest(context, request);
+    }
+
+    /**
+     * Get the current matchups for the given user in each of the given leagues.
+     *
+     * Scoreboards are fetched in batches of up to {@link #MAX_LEAGUES_PER_REQUEST} leagues per
+     * request, all in parallel. Leagues for which no matchup could be found will be absent from
+     * the response, and leagues in an unsupported format will have a {@link ParseError} instead.
+     */
+    public static ApiCall getMatchups(final Context context, Object tag, final Account account,
+            League[] leagues, Listener<MultiLeagueScoreboard> listener,
+            ErrorListener errorListener) {
+        return makeBatchedCall(context, tag, leagues, new BatchCollector<MultiLeagueScoreboard>(
+                new MultiLeagueScoreboard(), listener, errorListener) {
+            @Override
+            protected YahooApiRequest<MultiLeagueScoreboard> newRequest(String leagueKeys) {
+                return new YahooApiRequest<MultiLeagueScoreboard>(context,
+                        "leagues;league_keys=" + leagueKeys + "/scoreboard", account, this,
+                        this) {
+                    @Override
+                    protected MultiLeagueScoreboard parseResponse(String response)
+                            throws ParseError {
+                        return ScoreboardParser.parseMultiLeagueXml(new StringReader(response));
+                    }
+                };
+            }
+
+            @Override
+            protected void merge(MultiLeagueScoreboard result,
+                    MultiLeagueScoreboard batchResult) {
+                result.addAll(batchResult);
+            }
+        });
+    }
+
+    /**
+     * Blocking version of {@link #getMatchups}.
+     *
+     * @param timeoutMs the overall time allowed for all requests, after which a
+     *                  {@link com.android.volley.TimeoutError} is thrown
+     */
+    public static MultiLeagueScoreboard blockingGetMatchups(Context context, Object tag,
+            Account account, League[] leagues, long timeoutMs)
+            throws VolleyError, InterruptedException {
+        Util.assertNotOnMainThread();
+        RequestFuture<MultiLeagueScoreboard> future = RequestFuture.newFuture();
+        ApiCall call = getMatchups(context, tag, account, leagues, future, future);
+        return Volley.awaitResponse(call, future, timeoutMs);
+    }
+
+    /**
+     * Get the distinct logo URLs of every team in each of the given leagues, fetched in batches of
+     * up to {@link #MAX_LEAGUES_PER_REQUEST} leagues per request, all in parallel.
+     */
+    public static ApiCall getTeamLogoUrls(final Context context, Object tag,
+            final Account account, League[] leagues, Listener<Set<String>> listener,
+            ErrorListener errorListener) {
+        return makeBatchedCall(context, tag, leagues, new BatchCollector<Set<String>>(
+                new LinkedHashSet<String>(), listener, errorListener) {
+            @Override
+            protected YahooApiRequest<Set<String>> newRequest(String leagueKeys) {
+                return new YahooApiRequest<Set<String>>(context,
+                        "leagues;league_keys=" + leagueKeys + "/teams", account, this, this) {
+                    @Override
+                    protected Set<String> parseResponse(String response) throws ParseError {
+                        return TeamLogoParser.parseXml(new StringReader(response));
+                    }
+                };
+            }
+
+            @Override
+            protected void merge(Set<String> result, Set<String> batchResult) {
+                result.addAll(batchResult);
+            }
+        });
+    }
+
+    /** Blocking version of {@link #getTeamLogoUrls}. */
+    public static Set<String> blockingGetTeamLogoUrls(Context context, Object tag,
+            Account account, League[] leagues) throws VolleyError, InterruptedException {
+        Util.assertNotOnMainThread();
+        RequestFuture<Set<String>> future = RequestFuture.newFuture();
+        getTeamLogoUrls(context, tag, account, leagues, future, future);
+        return Volley.awaitResponse(future);
+    }
+
+    /**
+     * Make a request for each batch of up to {@link #MAX_LEAGUES_PER_REQUEST} leagues, combining
+     * their responses with the given collector. If there are no leagues, the collector's empty
+     * result is delivered right away.
+     */
+    private static <T> ApiCall makeBatchedCall(Context context, Object tag, League[] leagues,
+            BatchCollector<T> collector) {
+        ApiCall call = new ApiCall();
+        collector.start(call, (leagues.length + MAX_LEAGUES_PER_REQUEST - 1)
+                / MAX_LEAGUES_PER_REQUEST);
+        for (int start = 0; start < leagues.length; start += MAX_LEAGUES_PER_REQUEST) {
+            int end = Math.min(leagues.length, start + MAX_LEAGUES_PER_REQUEST);
+            StringBuilder leagueKeys = new StringBuilder();
+            for (int i = start; i < end; i++) {
+                if (i > start) {
+                    leagueKeys.append(',');
+                }
+                leagueKeys.append(leagues[i].league_key);
+            }
+            YahooApiRequest<T> request = collector.newRequest(leagueKeys.toString());
+            request.setTag(tag);
+            Volley.getInstance(context).getRequestQueueForCurrentThread().add(request);
+            call.add(request);
+        }
+        return call;
+    }
+
+    /**
+     * Combines the responses to the batches of a batched call into a single response, which is
+     * delivered once every batch has succeeded. The first error is delivered instead if any batch
+     * fails, and the remaining batches are cancelled.
+     *
+     * @param <T> the type of the response, which is accumulated in a single mutable instance
+     */
+    private abstract static class BatchCollector<T> implements Listener<T>, ErrorListener {
+        private final T mResult;
+        private final Listener<T> mListener;
+        private final ErrorListener mErrorListener;
+        private ApiCall mCall;
+        private int mNumPending;
+        private boolean mDone;
+
+        BatchCollector(T emptyResult, Listener<T> listener, ErrorListener errorListener) {
+            mResult = emptyResult;
+            mListener = listener;
+            mErrorListener = errorListener;
+        }
+
+        void start(ApiCall call, int numBatches) {
+            synchronized (this) {
+                mCall = call;
+                mNumPending = numBatches;
+                mDone = numBatches == 0;
+            }
+            if (numBatches == 0) {
+                mListener.onResponse(mResult);
+            }
+        }
+
+        /** Create the request for a batch, with this collector as its listeners. */
+        protected abstract YahooApiRequest<T> newRequest(String leagueKeys);
+
+        /** Add a batch's response to the overall result. */
+        protected abstract void merge(T result, T batchResult);
+
+        @Override
+        public void onResponse(T batchResult) {
+            synchronized (this) {
+                if (mDone) {
+                    return;
+                }
+                merge(mResult, batchResult);
+                if (--mNumPending > 0) {
+                    return;
+                }
+                mDone = true;
+            }
+            mListener.onResponse(mResult);
+        }
+
+        @Override
+        public void onErrorResponse(VolleyError error) {
+            synchronized (this) {
+                if (mDone) {
+                    return;
+                }
+                mDone = true;
+            }
+            mCall.cancel();
+            mErrorListener.onErrorResponse(error);
+        }
     }
 }
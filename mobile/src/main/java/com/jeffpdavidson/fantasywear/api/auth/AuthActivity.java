@@ -120,7 +120,7 @@ public class AuthActivity extends AccountAuthenticatorActionBarActivity
 
             @Override
             protected void onCancelled(Void result) {
-                Volley.getInstance(AuthActivity.this).getRequestQueue().cancelAll(TAG);
+                Volley.getInstance(AuthActivity.this).cancelAll(TAG);
             }
         }.execute();
     }
@@ -215,7 +215,7 @@ public class AuthActivity extends AccountAuthenticatorActionBarActivity
 
                 @Override
                 protected void onCancelled(Bundle result) {
-                    Volley.getInstance(AuthActivity.this).getRequestQueue().cancelAll(TAG);
+                    Volley.getInstance(AuthActivity.this).cancelAll(TAG);
                 }
             }.execute();
             return true;
@@ -7,10 +7,12 @@ import android.os.Build;
 import android.text.TextUtils;
 
 import com.android.volley.AuthFailureError;
-import com.android.volley.RequestQueue;
+import com.android.volley.Response.ErrorListener;
+import com.android.volley.Response.Listener;
 import com.android.volley.VolleyError;
 import com.android.volley.toolbox.RequestFuture;
 import com.jeffpdavidson.fantasywear.BuildConfig;
+import com.jeffpdavidson.fantasywear.api.ApiCall;
 import com.jeffpdavidson.fantasywear.api.Volley;
 import com.jeffpdavidson.fantasywear.util.Util;
 
@@ -20,10 +22,12 @@ import java.util.Map;
 /**
  * Client for performing OAuth authentication calls.
  *
- * Methods in this class are blocking and must be called from a background thread. Requests are made
- * with Volley, and in-flight requests may be cancelled by obtaining the request queue with
- * {@link Volley#getRequestQueue()} and calling {@link RequestQueue#cancelAll(Object)} with the tag
- * provided to the request method.
+ * Each call has an asynchronous method, which delivers the resulting token to the given listeners
+ * on a background thread and returns an {@link ApiCall} with which it can be cancelled, and a
+ * blocking wrapper, which must be called from a background thread. Requests are made on Volley's
+ * auth queue (see {@link Volley#getAuthRequestQueue}), so that token refreshes never wait behind
+ * the API requests which need them, and in-flight requests may also be cancelled by calling
+ * {@link Volley#cancelAll(Object)} with the tag provided to the request method.
  */
 final class OAuthClient {
     private static final String ENDPOINT_GET_REQUEST_TOKEN = "get_request_token";
@@ -38,10 +42,8 @@ final class OAuthClient {
 
     /** Obtain an OAuth request token. */
     @TargetApi(21)
-    public static Token blockingGetRequestToken(Context context, Object tag)
-            throws VolleyError, InterruptedException {
-        Util.assertNotOnMainThread();
-        RequestFuture<Token> future = RequestFuture.newFuture();
+    public static ApiCall getRequestToken(Context context, Object tag, Listener<Token> listener,
+            ErrorListener errorListener) {
         Map<String, String> extraHeaders = new HashMap<>();
         extraHeaders.put(KEY_CALLBACK, BuildConfig.CALLBACK_URL);
         if (Build.VERSION.SDK_INT >= 21) {
@@ -50,19 +52,30 @@ final class OAuthClient {
         }
         // We use an empty token here because this is the initial request.
         OAuthTokenRequest request = new OAuthTokenRequest(ENDPOINT_GET_REQUEST_TOKEN,
-                new Token.Builder().build(), extraHeaders, future, future);
+                new Token.Builder().build(), extraHeaders, listener, errorListener);
         request.setTag(tag);
-        return Volley.makeBlockingRequest(context, request, future);
+        return Volley.makeAuthRequest(context, request);
+    }
+
+    /** Blocking version of {@link #getRequestToken}. */
+    public static Token blockingGetRequestToken(Context context, Object tag)
+            throws VolleyError, InterruptedException {
+        Util.assertNotOnMainThread();
+        RequestFuture<Token> future = RequestFuture.newFuture();
+        getRequestToken(context, tag, future, future);
+        return Volley.awaitResponse(future);
     }
 
     /**
      * Exchange a request token and an OAuth verifier (attached to the given callback uri) for an
      * auth token.
+     *
+     * @throws AuthFailureError if the callback uri has no verifier, in which case no request is
+     *                          made
      */
-    public static Token blockingGetToken(Context context, Object tag, Token requestToken,
-            String callbackUri) throws VolleyError, InterruptedException {
-        Util.assertNotOnMainThread();
-        RequestFuture<Token> future = RequestFuture.newFuture();
+    public static ApiCall getToken(Context context, Object tag, Token requestToken,
+            String callbackUri, Listener<Token> listener, ErrorListener errorListener)
+            throws AuthFailureError {
         Map<String, String> extraHeaders = new HashMap<>();
         Uri uri = Uri.parse(callbackUri);
         String verifier = uri.getQueryParameter(KEY_VERIFIER);
@@ -71,21 +84,37 @@ final class OAuthClient {
         }
         extraHeaders.put(KEY_VERIFIER, verifier);
         OAuthTokenRequest request = new OAuthTokenRequest(
-                ENDPOINT_GET_TOKEN, requestToken, extraHeaders, future, future);
+                ENDPOINT_GET_TOKEN, requestToken, extraHeaders, listener, errorListener);
         request.setTag(tag);
-        return Volley.makeBlockingRequest(context, request, future);
+        return Volley.makeAuthRequest(context, request);
     }
 
-    /** Refresh an expired auth token. */
-    public static Token blockingRefreshToken(Context context, Object tag, Token token)
-            throws VolleyError, InterruptedException {
+    /** Blocking version of {@link #getToken}. */
+    public static Token blockingGetToken(Context context, Object tag, Token requestToken,
+            String callbackUri) throws VolleyError, InterruptedException {
         Util.assertNotOnMainThread();
         RequestFuture<Token> future = RequestFuture.newFuture();
+        getToken(context, tag, requestToken, callbackUri, future, future);
+        return Volley.awaitResponse(future);
+    }
+
+    /** Refresh an expired auth token. */
+    public static ApiCall refreshToken(Context context, Object tag, Token token,
+            Listener<Token> listener, ErrorListener errorListener) {
         Map<String, String> extraHeaders = new HashMap<>();
         extraHeaders.put(KEY_SESSION_HANDLE, token.session_handle);
         OAuthTokenRequest request = new OAuthTokenRequest(
-                ENDPOINT_GET_TOKEN, token, extraHeaders, future, future);
+                ENDPOINT_GET_TOKEN, token, extraHeaders, listener, errorListener);
         request.setTag(tag);
-        return Volley.makeBlockingRequest(context, request, future);
+        return Volley.makeAuthRequest(context, request);
+    }
+
+    /** Blocking version of {@link #refreshToken}. */
+    public static Token blockingRefreshToken(Context context, Object tag, Token token)
+            throws VolleyError, InterruptedException {
+        Util.assertNotOnMainThread();
+        RequestFuture<Token> future = RequestFuture.newFuture();
+        refreshToken(context, tag, token, future, future);
+        return Volley.awaitResponse(future);
     }
 }
@@ -7,6 +7,7 @@ import android.util.Xml;
 import com.android.volley.ParseError;
 import com.jeffpdavidson.fantasywear.api.model.Matchup;
 import com.jeffpdavidson.fantasywear.api.model.Team;
+import com.jeffpdavidson.fantasywear.log.FWLog;
 import com.squareup.wire.Wire;
 
 import org.xmlpull.v1.XmlPullParser;
@@ -14,21 +15,46 @@ import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * XML parser for the scoreboard of a fantasy league.
  *
- * Input XML is obtained via the league/[league_key]/scoreboard API.
+ * Input XML is obtained via the league/[league_key]/scoreboard API, or for multiple leagues at
+ * once, the leagues;league_keys=[league_key,...]/scoreboard API.
  */
 public final class ScoreboardParser {
     private ScoreboardParser() {}
 
+    /** The result of parsing a scoreboard covering multiple leagues. */
+    public static final class MultiLeagueScoreboard {
+        /** The user's matchup in each league in which it was found, keyed by league key. */
+        public final Map<String, Matchup> matchups = new HashMap<>();
+
+        /**
+         * Errors for leagues whose scoreboard is in an unsupported format, keyed by league key.
+         * Unlike a league which is merely missing the user's matchup, these won't parse on a later
+         * try either.
+         */
+        public final Map<String, ParseError> errors = new HashMap<>();
+
+        /** Add the leagues of another scoreboard to this one. */
+        public void addAll(MultiLeagueScoreboard scoreboard) {
+            matchups.putAll(scoreboard.matchups);
+            errors.putAll(scoreboard.errors);
+        }
+    }
+
     @NonNull
     public static Matchup parseXml(Reader reader) throws ParseError {
         XmlPullParser parser = Xml.newPullParser();
         try {
             parser.setInput(reader);
             return parseFantasyContent(parser);
+        } catch (UnsupportedOperationException e) {
+            FWLog.w("Unsupported matchup format: %s", e.getMessage());
+            throw new ParseError(e);
         } catch (XmlPullParserException | IOException e) {
             // We make the assumption that an IOException is a parser error rather than an error
             // reading the file, because in practice, we will read the full HTTP response as a
@@ -37,6 +63,25 @@ public final class ScoreboardParser {
         }
     }
 
+    /**
+     * Parse a scoreboard covering multiple leagues.
+     *
+     * Leagues in which the user's matchup can't be found are omitted from the result, and leagues
+     * in an unsupported format are reported in {@link MultiLeagueScoreboard#errors}, rather than
+     * failing the whole document.
+     */
+    @NonNull
+    public static MultiLeagueScoreboard parseMultiLeagueXml(Reader reader) throws ParseError {
+        XmlPullParser parser = Xml.newPullParser();
+        try {
+            parser.setInput(reader);
+            return parseMultiLeagueFantasyContent(parser);
+        } catch (XmlPullParserException | IOException e) {
+            // See parseXml.
+            throw new ParseError(e);
+        }
+    }
+
     @NonNull
     private static Matchup parseFantasyContent(XmlPullParser parser)
             throws XmlPullParserException, IOException {
@@ -54,37 +99,114 @@ public final class ScoreboardParser {
         throw new XmlPullParserException("No <league> in <fantasy_content> tag");
     }
 
+    @NonNull
+    private static MultiLeagueScoreboard parseMultiLeagueFantasyContent(XmlPullParser parser)
+            throws XmlPullParserException, IOException {
+        parser.next();
+        parser.require(XmlPullParser.START_TAG, null, "fantasy_content");
+        MultiLeagueScoreboard scoreboard = new MultiLeagueScoreboard();
+        while (parser.next() != XmlPullParser.END_DOCUMENT) {
+            if (parser.getEventType() == XmlPullParser.START_TAG &&
+                    "league".equals(parser.getName())) {
+                parseLeague(parser, scoreboard);
+            }
+        }
+        return scoreboard;
+    }
+
+    /**
+     * Parse a single league's scoreboard, adding the user's matchup to the scoreboard if found, or
+     * an error if the league is in an unsupported format.
+     */
+    private static void parseLeague(XmlPullParser parser, MultiLeagueScoreboard scoreboard)
+            throws XmlPullParserException, IOException {
+        parser.require(XmlPullParser.START_TAG, null, "league");
+        int depth = parser.getDepth();
+        String leagueKey = null;
+        Matchup matchup = null;
+        UnsupportedOperationException unsupported = null;
+        while (parser.next() != XmlPullParser.END_TAG || parser.getDepth() != depth) {
+            if (parser.getEventType() == XmlPullParser.END_DOCUMENT) {
+                throw new XmlPullParserException("Unterminated <league> tag");
+            }
+            if (parser.getEventType() != XmlPullParser.START_TAG) {
+                continue;
+            }
+            if ("league_key".equals(parser.getName()) && parser.getDepth() == depth + 1) {
+                leagueKey = parser.nextText();
+            } else if ("matchup".equals(parser.getName()) && matchup == null
+                    && unsupported == null) {
+                try {
+                    matchup = parseMatchup(parser);
+                } catch (UnsupportedOperationException e) {
+                    // parseMatchup bails out at the <teams> tag; the rest of this league is
+                    // consumed by this loop, which tracks depth.
+                    unsupported = e;
+                }
+            }
+        }
+        parser.require(XmlPullParser.END_TAG, null, "league");
+        if (leagueKey == null) {
+            return;
+        }
+        if (unsupported != null) {
+            FWLog.w("Unsupported matchup format in %s: %s", leagueKey, unsupported.getMessage());
+            scoreboard.errors.put(leagueKey, new ParseError(unsupported));
+        } else if (matchup != null) {
+            scoreboard.matchups.put(leagueKey, matchup);
+        }
+    }
+
     @Nullable
     private static Matchup parseMatchup(XmlPullParser parser)
             throws XmlPullParserException, IOException {
         parser.require(XmlPullParser.START_TAG, null, "matchup");
+        Matchup.Builder matchup = new Matchup.Builder();
+        boolean isUsersMatchup = false;
         while (parser.next() != XmlPullParser.END_TAG) {
             if (parser.getEventType() == XmlPullParser.START_TAG) {
-                if ("teams".equals(parser.getName())) {
-                    if (!"2".equals(parser.getAttributeValue(null, "count"))) {
-                        // TODO: Support other fantasy league formats (points, roto, others?).
-                        throw new UnsupportedOperationException(
-                                "Only head-to-head leagues are supported");
-                    }
-                    Team[] teams = parseTeams(parser);
-                    if (Wire.get(teams[0].is_owned_by_current_login, false)) {
-                        return new Matchup.Builder()
-                                .my_team(teams[0])
-                                .opponent_team(teams[1])
-                                .build();
-                    } else if (Wire.get(teams[1].is_owned_by_current_login, false)) {
-                        return new Matchup.Builder()
-                                .my_team(teams[1])
-                                .opponent_team(teams[0])
-                                .build();
-                    }
-                } else {
-                    Util.skipCurrentTag(parser);
+                switch (parser.getName()) {
+                    case "week":
+                        matchup.week(parseInt(parser.nextText()));
+                        break;
+                    case "week_start":
+                        matchup.week_start(parser.nextText());
+                        break;
+                    case "week_end":
+                        matchup.week_end(parser.nextText());
+                        break;
+                    case "teams":
+                        if (!"2".equals(parser.getAttributeValue(null, "count"))) {
+                            // TODO: Support other fantasy league formats (points, roto, others?).
+                            throw new UnsupportedOperationException(
+                                    "Only head-to-head leagues are supported");
+                        }
+                        Team[] teams = parseTeams(parser);
+                        if (Wire.get(teams[0].is_owned_by_current_login, false)) {
+                            matchup.my_team(teams[0]).opponent_team(teams[1]);
+                            isUsersMatchup = true;
+                        } else if (Wire.get(teams[1].is_owned_by_current_login, false)) {
+                            matchup.my_team(teams[1]).opponent_team(teams[0]);
+                            isUsersMatchup = true;
+                        }
+                        break;
+                    default:
+                        Util.skipCurrentTag(parser);
+                        break;
                 }
             }
         }
+        parser.require(XmlPullParser.END_TAG, null, "matchup");
         // If the user's team wasn't found, we'll try the next matchup.
-        return null;
+        return isUsersMatchup ? matchup.build() : null;
+    }
+
+    private static int parseInt(String text) throws XmlPullParserException {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            throw new XmlPullParserException("Invalid integer: " + text);
+        }
     }
 
     private static Team[] parseTeams(XmlPullParser parser)
@@ -157,7 +279,8 @@ public final class ScoreboardParser {
         return url;
     }
 
-    private static String parseTeamLogo(XmlPullParser parser)
+    /** Parse the URL out of a team_logo tag; also used by {@link TeamLogoParser}. */
+    static String parseTeamLogo(XmlPullParser parser)
             throws XmlPullParserException, IOException {
         parser.require(XmlPullParser.START_TAG, null, "team_logo");
         String url = null;
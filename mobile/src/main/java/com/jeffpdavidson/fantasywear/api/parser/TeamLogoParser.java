@@ -0,0 +1,56 @@
+package com.jeffpdavidson.fantasywear.api.parser;
+
+import android.support.annotation.NonNull;
+import android.util.Xml;
+
+import com.android.volley.ParseError;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * XML parser for the logo URLs of every team in one or more fantasy leagues.
+ *
+ * Input XML is obtained via the leagues;league_keys=[league_key,...]/teams API.
+ */
+public final class TeamLogoParser {
+    private TeamLogoParser() {}
+
+    /** Parse the distinct team logo URLs in the document, in the order they appear. */
+    @NonNull
+    public static Set<String> parseXml(Reader reader) throws ParseError {
+        XmlPullParser parser = Xml.newPullParser();
+        try {
+            parser.setInput(reader);
+            return parseFantasyContent(parser);
+        } catch (XmlPullParserException | IOException e) {
+            // We make the assumption that an IOException is a parser error rather than an error
+            // reading the file, because in practice, we will read the full HTTP response as a
+            // String before attempting to parse the XML.
+            throw new ParseError(e);
+        }
+    }
+
+    @NonNull
+    private static Set<String> parseFantasyContent(XmlPullParser parser)
+            throws XmlPullParserException, IOException {
+        parser.next();
+        parser.require(XmlPullParser.START_TAG, null, "fantasy_content");
+        Set<String> urls = new LinkedHashSet<>();
+        while (parser.next() != XmlPullParser.END_DOCUMENT) {
+            if (parser.getEventType() == XmlPullParser.START_TAG &&
+                    "team_logo".equals(parser.getName())) {
+                String url = ScoreboardParser.parseTeamLogo(parser);
+                if (url != null) {
+                    urls.add(url);
+                }
+            }
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,88 @@
+package com.jeffpdavidson.fantasywear.fragments;
+
+import android.app.AlertDialog;
+import android.app.Dialog;
+import android.content.DialogInterface;
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.v4.app.DialogFragment;
+import android.support.v4.app.FragmentManager;
+
+import com.jeffpdavidson.fantasywear.R;
+import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
+import com.jeffpdavidson.fantasywear.api.model.League;
+import com.jeffpdavidson.fantasywear.storage.Preferences;
+import com.jeffpdavidson.fantasywear.util.WireUtil;
+
+/**
+ * Dialog for choosing which leagues are pinned, i.e. synced on every periodic sync even when the
+ * number of leagues per sync is limited.
+ */
+public class PinnedLeaguesDialogFragment extends DialogFragment
+        implements DialogInterface.OnClickListener, DialogInterface.OnMultiChoiceClickListener {
+    @VisibleForTesting
+    public static final String TAG = "PinnedLeaguesDialog";
+
+    private static final String ARG_LEAGUES = "leagues";
+    private static final String SAVED_PINNED = "pinned";
+
+    private League[] mLeagues;
+    private boolean[] mPinned;
+
+    public static void show(FragmentManager fm, League[] leagues) {
+        PinnedLeaguesDialogFragment fragment = new PinnedLeaguesDialogFragment();
+        String[] encodedLeagues = new String[leagues.length];
+        for (int i = 0; i < leagues.length; i++) {
+            encodedLeagues[i] = WireUtil.encodeToString(leagues[i]);
+        }
+        Bundle arguments = new Bundle();
+        arguments.putStringArray(ARG_LEAGUES, encodedLeagues);
+        fragment.setArguments(arguments);
+        fragment.show(fm, TAG);
+    }
+
+    @NonNull
+    @Override
+    public Dialog onCreateDialog(Bundle savedInstanceState) {
+        String[] encodedLeagues = getArguments().getStringArray(ARG_LEAGUES);
+        mLeagues = new League[encodedLeagues.length];
+        String[] leagueNames = new String[encodedLeagues.length];
+        for (int i = 0; i < encodedLeagues.length; i++) {
+            mLeagues[i] = WireUtil.decodeFromString(encodedLeagues[i], League.class);
+            leagueNames[i] = mLeagues[i].league_name;
+        }
+
+        if (savedInstanceState != null) {
+            mPinned = savedInstanceState.getBooleanArray(SAVED_PINNED);
+        } else {
+            mPinned = new boolean[mLeagues.length];
+            for (int i = 0; i < mLeagues.length; i++) {
+                mPinned[i] = Preferences.isLeaguePinned(getActivity(), mLeagues[i]);
+            }
+        }
+
+        return new AlertDialog.Builder(getActivity())
+                .setTitle(R.string.pinned_leagues)
+                .setMultiChoiceItems(leagueNames, mPinned, this)
+                .setNegativeButton(R.string.cancel, null)
+                .setPositiveButton(R.string.save, this)
+                .create();
+    }
+
+    @Override
+    public void onSaveInstanceState(Bundle outState) {
+        outState.putBooleanArray(SAVED_PINNED, mPinned);
+    }
+
+    @Override
+    public void onClick(DialogInterface dialog, int which, boolean isChecked) {
+        mPinned[which] = isChecked;
+    }
+
+    @Override
+    public void onClick(DialogInterface dialog, int which) {
+        for (int i = 0; i < mLeagues.length; i++) {
+            Preferences.setLeaguePinned(getActivity(), mLeagues[i], mPinned[i]);
+        }
+    }
+}
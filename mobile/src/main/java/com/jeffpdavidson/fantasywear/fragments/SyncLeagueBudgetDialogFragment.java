@@ -0,0 +1,75 @@
+package com.jeffpdavidson.fantasywear.fragments;
+
+import android.app.AlertDialog;
+import android.app.Dialog;
+import android.content.DialogInterface;
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.v4.app.DialogFragment;
+import android.support.v4.app.FragmentManager;
+
+import com.jeffpdavidson.fantasywear.R;
+import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
+import com.jeffpdavidson.fantasywear.storage.Preferences;
+
+import java.util.Arrays;
+
+/** Dialog for setting the maximum number of leagues to sync per periodic sync. */
+public class SyncLeagueBudgetDialogFragment extends DialogFragment
+        implements DialogInterface.OnClickListener {
+    @VisibleForTesting
+    public static final String TAG = "SyncLeagueBudgetDialog";
+
+    private static final String SAVED_SELECTED_INDEX = "selected_index";
+
+    private int[] mSyncLeagueBudgets;
+    private int mSelectedIndex;
+
+    public static void show(FragmentManager fm) {
+        new SyncLeagueBudgetDialogFragment().show(fm, TAG);
+    }
+
+    @NonNull
+    @Override
+    public Dialog onCreateDialog(Bundle savedInstanceState) {
+        mSyncLeagueBudgets = getResources().getIntArray(R.array.sync_league_budgets);
+
+        if (savedInstanceState != null) {
+            mSelectedIndex = savedInstanceState.getInt(SAVED_SELECTED_INDEX);
+        } else {
+            mSelectedIndex = Math.max(0, Arrays.binarySearch(mSyncLeagueBudgets,
+                    Preferences.getSyncLeagueBudget(getActivity())));
+        }
+
+        String[] choices = new String[mSyncLeagueBudgets.length];
+        for (int i = 0; i < mSyncLeagueBudgets.length; i++) {
+            // A budget of 0 means every league is synced.
+            choices[i] = mSyncLeagueBudgets[i] == 0 ? getString(R.string.all_leagues)
+                    : getResources().getQuantityString(R.plurals.leagues,
+                            mSyncLeagueBudgets[i], mSyncLeagueBudgets[i]);
+        }
+
+        return new AlertDialog.Builder(getActivity())
+                .setTitle(R.string.sync_league_budget)
+                .setSingleChoiceItems(choices, mSelectedIndex, this)
+                .setNegativeButton(R.string.cancel, null)
+                .setPositiveButton(R.string.save, this)
+                .create();
+    }
+
+    @Override
+    public void onSaveInstanceState(Bundle outState) {
+        outState.putInt(SAVED_SELECTED_INDEX, mSelectedIndex);
+    }
+
+    @Override
+    public void onClick(DialogInterface dialog, int which) {
+        if (which == DialogInterface.BUTTON_POSITIVE) {
+            if (mSelectedIndex >= 0) {
+                Preferences.setSyncLeagueBudget(getActivity(), mSyncLeagueBudgets[mSelectedIndex]);
+            }
+        } else {
+            mSelectedIndex = which;
+        }
+    }
+}
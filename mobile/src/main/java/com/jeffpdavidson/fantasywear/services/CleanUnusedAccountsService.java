@@ -14,9 +14,13 @@ import com.google.android.gms.wearable.Wearable;
 import com.jeffpdavidson.fantasywear.api.auth.AccountAuthenticator;
 import com.jeffpdavidson.fantasywear.log.FWLog;
 import com.jeffpdavidson.fantasywear.protocol.LeagueData;
+import com.jeffpdavidson.fantasywear.storage.Preferences;
 import com.jeffpdavidson.fantasywear.storage.TokenTable;
+import com.jeffpdavidson.fantasywear.sync.SyncAdapter;
 import com.jeffpdavidson.fantasywear.util.Constants;
+import com.jeffpdavidson.fantasywear.util.WearableConnection;
 
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -25,8 +29,6 @@ import java.util.concurrent.TimeUnit;
 public class CleanUnusedAccountsService extends IntentService {
     private static final String TAG = "CleanUnusedAcctsSvc";
 
-    private GoogleApiClient mGoogleApiClient;
-
     public static void start(Context context) {
         Intent intent = new Intent(context, CleanUnusedAccountsService.class);
         context.startService(intent);
@@ -37,21 +39,6 @@ public class CleanUnusedAccountsService extends IntentService {
         setIntentRedelivery(true);
     }
 
-    @Override
-    public void onCreate() {
-        super.onCreate();
-        mGoogleApiClient = new GoogleApiClient.Builder(this)
-                .addApi(Wearable.API)
-                .build();
-        mGoogleApiClient.connect();
-    }
-
-    @Override
-    public void onDestroy() {
-        mGoogleApiClient.disconnect();
-        super.onDestroy();
-    }
-
     @Override
     protected void onHandleIntent(Intent intent) {
         FWLog.d("Cleaning unused accounts");
@@ -64,13 +51,29 @@ public class CleanUnusedAccountsService extends IntentService {
         // Remove any orphaned entries from the token table in our database.
         TokenTable.cleanUnusedTokens(this, accounts);
 
+        // Periodic syncs are only scheduled for one account, which may have been removed. The next
+        // sync will adjust the interval again.
+        SyncAdapter.setPeriodicSyncIntervalSec(this, Preferences.getSyncIntervalSec(this));
+
         // Attempt to clear any active notifications for missing accounts.
-        if (!mGoogleApiClient.isConnected() && !mGoogleApiClient.blockingConnect(
-                Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS).isSuccess()) {
-            FWLog.e("Unable to connect to wear, cannot remove stale notifications");
+        WearableConnection wearableConnection = WearableConnection.getInstance(this);
+        GoogleApiClient googleApiClient;
+        try {
+            googleApiClient = wearableConnection.blockingAcquire();
+        } catch (IOException e) {
+            FWLog.e(e, "Unable to connect to wear, cannot remove stale notifications");
+            return;
+        }
+        try {
+            removeStaleLeagueData(googleApiClient, accounts);
+        } finally {
+            wearableConnection.release();
         }
+    }
 
-        DataItemBuffer result = Wearable.DataApi.getDataItems(mGoogleApiClient)
+    private static void removeStaleLeagueData(GoogleApiClient googleApiClient,
+            Account[] accounts) {
+        DataItemBuffer result = Wearable.DataApi.getDataItems(googleApiClient)
                 .await(Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS);
         try {
             if (!result.getStatus().isSuccess()) {
@@ -83,7 +86,7 @@ public class CleanUnusedAccountsService extends IntentService {
             for (DataItem item : result) {
                 if (!LeagueData.isActiveLeagueDataItem(item, accountNames)) {
                     DeleteDataItemsResult deleteResult = Wearable.DataApi.deleteDataItems(
-                            mGoogleApiClient, item.getUri()).await(
+                            googleApiClient, item.getUri()).await(
                             Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS);
                     FWLog.i("Clean league data for URI = %s, status = %s, numDeleted = %d",
                             item.getUri(), deleteResult.getStatus(), deleteResult.getNumDeleted());
@@ -2,10 +2,13 @@ package com.jeffpdavidson.fantasywear.services;
 
 import android.net.Uri;
 
+import com.google.android.gms.wearable.CapabilityInfo;
 import com.google.android.gms.wearable.MessageEvent;
 import com.google.android.gms.wearable.WearableListenerService;
 import com.jeffpdavidson.fantasywear.log.FWLog;
 import com.jeffpdavidson.fantasywear.protocol.Paths;
+import com.jeffpdavidson.fantasywear.sync.HostElection;
+import com.jeffpdavidson.fantasywear.sync.ReplayService;
 import com.jeffpdavidson.fantasywear.sync.SyncAdapter;
 import com.jeffpdavidson.fantasywear.util.LocalBroadcasts;
 
@@ -15,26 +18,48 @@ import java.io.UnsupportedEncodingException;
  * {@link WearableListenerService} for the mobile device.
  *
  * Listens for {@link Paths#SYNC} requests sent from the wear device (e.g. due to reboot or app
- * upgrade, which cause the notification to disappear) and forces a sync to retrigger the
- * notification.
+ * upgrade, which cause the notification to disappear) and replays the last-known league data from
+ * the local cache to retrigger the notification; see {@link ReplayService}.
+ * Requests to refresh a single league are handled by {@link ReplayService} as well.
+ *
+ * Also listens for other devices starting or stopping to sync the same accounts, and requests a
+ * sync so that accounts are taken over promptly if their owner disappeared; see
+ * {@link HostElection}.
  */
 public class ListenerService extends WearableListenerService {
     @Override
     public void onMessageReceived(MessageEvent message) {
         if (Paths.SYNC.equals(message.getPath())) {
-            FWLog.i("Received a sync request; manually syncing all accounts");
-            SyncAdapter.requestManualSync(this);
-        } else if (Paths.ACK.equals(message.getPath())) {
-            Uri uri;
-            try {
-                uri = Uri.parse(new String(message.getData(), "UTF-8"));
-            } catch (UnsupportedEncodingException e) {
-                throw new IllegalStateException("UTF-8 must be a supported encoding", e);
+            if (message.getData().length == 0) {
+                FWLog.i("Received a sync request; replaying cached league data");
+                ReplayService.start(this);
+            } else {
+                Uri leagueUri = parseUri(message.getData());
+                FWLog.i("Received a refresh request for URI %s", leagueUri);
+                ReplayService.startForLeague(this, leagueUri);
             }
+        } else if (Paths.ACK.equals(message.getPath())) {
+            Uri uri = parseUri(message.getData());
             FWLog.d("Received an ACK for URI %s", uri);
             LocalBroadcasts.sendAckBroadcast(this, uri);
         } else {
             FWLog.e("Unknown message path: %s", message.getPath());
         }
     }
+
+    @Override
+    public void onCapabilityChanged(CapabilityInfo capabilityInfo) {
+        if (capabilityInfo.getName().startsWith(HostElection.CAPABILITY_PREFIX)) {
+            FWLog.i("Sync hosts changed for %s; requesting a sync", capabilityInfo.getName());
+            SyncAdapter.requestSync(this);
+        }
+    }
+
+    private static Uri parseUri(byte[] data) {
+        try {
+            return Uri.parse(new String(data, "UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 must be a supported encoding", e);
+        }
+    }
 }
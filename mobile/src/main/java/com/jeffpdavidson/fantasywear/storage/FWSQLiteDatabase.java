@@ -9,7 +9,7 @@ import android.os.Build;
 /** Data store for FantasyWear. */
 public class FWSQLiteDatabase extends SQLiteOpenHelper {
     private static final String DATABASE_NAME = "fantasywear.db";
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 9;
 
     private static volatile FWSQLiteDatabase sInstance;
 
@@ -32,6 +32,8 @@ public class FWSQLiteDatabase extends SQLiteOpenHelper {
     public void onCreate(SQLiteDatabase db) {
         TokenTable.createTable(db);
         LeagueTable.createTable(db);
+        SyncJournalTable.createTable(db);
+        MatchupArchiveTable.createTable(db);
     }
 
     @TargetApi(16)
@@ -51,6 +53,10 @@ public class FWSQLiteDatabase extends SQLiteOpenHelper {
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        throw new UnsupportedOperationException("DB version changes are not implemented");
+        // Each table's createTable creates the latest schema; upgradeTable applies the changes made
+        // since oldVersion to an existing table.
+        LeagueTable.upgradeTable(db, oldVersion);
+        SyncJournalTable.upgradeTable(db, oldVersion);
+        MatchupArchiveTable.upgradeTable(db, oldVersion);
     }
 }
@@ -6,11 +6,19 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.net.Uri;
+import android.support.annotation.Nullable;
 
 import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
 import com.jeffpdavidson.fantasywear.api.model.League;
 import com.jeffpdavidson.fantasywear.api.model.League.Builder;
+import com.jeffpdavidson.fantasywear.api.model.Matchup;
 import com.jeffpdavidson.fantasywear.sync.SyncProvider;
+import com.jeffpdavidson.fantasywear.util.WireUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * SQLite table which contains metadata about each of the user's leagues.
@@ -19,10 +27,19 @@ public final class LeagueTable {
     public static final Uri CONTENT_URI =
             Uri.parse("content://" + SyncProvider.AUTHORITY + "/leagues");
 
-    private static final String TABLE_NAME = "leagues";
-    private static final String COLUMN_ACCOUNT_NAME = "account_name";
-    private static final String COLUMN_LEAGUE_KEY = "league_key";
+    static final String TABLE_NAME = "leagues";
+    static final String COLUMN_ACCOUNT_NAME = "account_name";
+    static final String COLUMN_LEAGUE_KEY = "league_key";
     private static final String COLUMN_LEAGUE_NAME = "league_name";
+    private static final String COLUMN_PUSHED_FINGERPRINT = "pushed_fingerprint";
+    private static final String COLUMN_LAST_CHANGE_TIME_SEC = "last_change_time_sec";
+    private static final String COLUMN_NEXT_SYNC_TIME_SEC = "next_sync_time_sec";
+    private static final String COLUMN_FAILURE_COUNT = "failure_count";
+    private static final String COLUMN_RETRY_AFTER_SEC = "retry_after_sec";
+    private static final String COLUMN_LAST_SYNC_TIME_SEC = "last_sync_time_sec";
+    private static final String COLUMN_PUSHED_MATCHUP = "pushed_matchup";
+    private static final String COLUMN_DEFERRED = "deferred";
+    private static final String COLUMN_FINISHED = "finished";
 
     private LeagueTable() {}
 
@@ -32,10 +49,57 @@ public final class LeagueTable {
                         + "(" + TokenTable.COLUMN_ACCOUNT_NAME + ") ON DELETE CASCADE, "
                 + COLUMN_LEAGUE_KEY + " TEXT, "
                 + COLUMN_LEAGUE_NAME + " TEXT, "
+                + COLUMN_PUSHED_FINGERPRINT + " TEXT, "
+                + COLUMN_LAST_CHANGE_TIME_SEC + " INTEGER, "
+                + COLUMN_NEXT_SYNC_TIME_SEC + " INTEGER, "
+                + COLUMN_FAILURE_COUNT + " INTEGER, "
+                + COLUMN_RETRY_AFTER_SEC + " INTEGER, "
+                + COLUMN_LAST_SYNC_TIME_SEC + " INTEGER, "
+                + COLUMN_PUSHED_MATCHUP + " TEXT, "
+                + COLUMN_DEFERRED + " INTEGER, "
+                + COLUMN_FINISHED + " INTEGER, "
                 + "PRIMARY KEY(" + COLUMN_ACCOUNT_NAME + "," + COLUMN_LEAGUE_KEY + ")"
                 + ");");
     }
 
+    static void upgradeTable(SQLiteDatabase db, int oldVersion) {
+        if (oldVersion < 2) {
+            db.execSQL("ALTER TABLE " + TABLE_NAME
+                    + " ADD COLUMN " + COLUMN_PUSHED_FINGERPRINT + " TEXT;");
+        }
+        if (oldVersion < 3) {
+            db.execSQL("ALTER TABLE " + TABLE_NAME
+                    + " ADD COLUMN " + COLUMN_LAST_CHANGE_TIME_SEC + " INTEGER;");
+        }
+        if (oldVersion < 4) {
+            db.execSQL("ALTER TABLE " + TABLE_NAME
+                    + " ADD COLUMN " + COLUMN_NEXT_SYNC_TIME_SEC + " INTEGER;");
+        }
+        if (oldVersion < 5) {
+            db.execSQL("ALTER TABLE " + TABLE_NAME
+                    + " ADD COLUMN " + COLUMN_FAILURE_COUNT + " INTEGER;");
+            db.execSQL("ALTER TABLE " + TABLE_NAME
+                    + " ADD COLUMN " + COLUMN_RETRY_AFTER_SEC + " INTEGER;");
+        }
+        if (oldVersion < 7) {
+            db.execSQL("ALTER TABLE " + TABLE_NAME
+                    + " ADD COLUMN " + COLUMN_LAST_SYNC_TIME_SEC + " INTEGER;");
+        }
+        if (oldVersion < 8) {
+            db.execSQL("ALTER TABLE " + TABLE_NAME
+                    + " ADD COLUMN " + COLUMN_PUSHED_MATCHUP + " TEXT;");
+        }
+        if (oldVersion < 9) {
+            db.execSQL("ALTER TABLE " + TABLE_NAME
+                    + " ADD COLUMN " + COLUMN_DEFERRED + " INTEGER;");
+            db.execSQL("ALTER TABLE " + TABLE_NAME
+                    + " ADD COLUMN " + COLUMN_FINISHED + " INTEGER;");
+        }
+    }
+
+    private static final String LEAGUE_SELECTION =
+            COLUMN_ACCOUNT_NAME + "=? AND " + COLUMN_LEAGUE_KEY + "=?";
+
     private static final String[] LEAGUE_COLUMNS = new String[] {
             COLUMN_ACCOUNT_NAME,
             COLUMN_LEAGUE_KEY,
@@ -52,6 +116,50 @@ public final class LeagueTable {
         return getLeagues(context, COLUMN_ACCOUNT_NAME + "=?", new String[] { account.name });
     }
 
+    /**
+     * Get the leagues for the provided account which should be synced at the given time.
+     *
+     * Leagues which are cooling down after repeated failures (see {@link #setFailureState}) are
+     * excluded unless includeCoolingDown is true. If dueOnly is true, leagues which aren't due yet
+     * (see {@link #setNextSyncTimeSec}) or whose season is over (see {@link #setFinished}) are
+     * excluded as well; otherwise, leagues which have never been synced, or which were deferred
+     * (see {@link #setDeferred}), are always due.
+     */
+    public static League[] getSyncableLeagues(Context context, Account account,
+            long currentTimeSec, boolean dueOnly, boolean includeCoolingDown) {
+        String time = Long.toString(currentTimeSec);
+        StringBuilder selection = new StringBuilder(COLUMN_ACCOUNT_NAME + "=?");
+        List<String> selectionArgs = new ArrayList<>();
+        selectionArgs.add(account.name);
+        if (!includeCoolingDown) {
+            selection.append(" AND (" + COLUMN_RETRY_AFTER_SEC + " IS NULL OR "
+                    + COLUMN_RETRY_AFTER_SEC + "<=?)");
+            selectionArgs.add(time);
+        }
+        if (dueOnly) {
+            selection.append(" AND (" + COLUMN_NEXT_SYNC_TIME_SEC + " IS NULL OR "
+                    + COLUMN_NEXT_SYNC_TIME_SEC + "<=? OR " + COLUMN_DEFERRED + "=1) AND "
+                    + COLUMN_FINISHED + " IS NULL");
+            selectionArgs.add(time);
+        }
+        return getLeagues(context, selection.toString(),
+                selectionArgs.toArray(new String[selectionArgs.size()]));
+    }
+
+    /**
+     * Get the leagues for the provided account whose current scoring week is in progress, i.e.
+     * which are due on every sync (see {@link #setNextSyncTimeSec}). Leagues which are only due
+     * because they were deferred, which are cooling down after repeated failures, or whose season
+     * is over, are excluded.
+     */
+    public static League[] getActiveLeagues(Context context, Account account,
+            long currentTimeSec) {
+        return getLeagues(context, COLUMN_ACCOUNT_NAME + "=? AND " + COLUMN_NEXT_SYNC_TIME_SEC
+                        + "=0 AND (" + COLUMN_RETRY_AFTER_SEC + " IS NULL OR "
+                        + COLUMN_RETRY_AFTER_SEC + "<=?) AND " + COLUMN_FINISHED + " IS NULL",
+                new String[] { account.name, Long.toString(currentTimeSec) });
+    }
+
     private static League[] getLeagues(Context context, String selection, String[] selectionArgs) {
         SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getReadableDatabase();
         Cursor cur = null;
@@ -79,14 +187,18 @@ public final class LeagueTable {
         SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getWritableDatabase();
         db.beginTransaction();
         try {
-            // Upsert the provided leagues.
+            // Upsert the provided leagues. We update before inserting, rather than replacing, to
+            // preserve the sync state columns of existing leagues.
             for (League league : leagues) {
                 ContentValues values = new ContentValues();
-                values.put(COLUMN_ACCOUNT_NAME, account.name);
-                values.put(COLUMN_LEAGUE_KEY, league.league_key);
                 values.put(COLUMN_LEAGUE_NAME, league.league_name);
-                // Safe as the provided leagues include data for all columns.
-                db.insertWithOnConflict(TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                int numUpdated = db.update(TABLE_NAME, values, LEAGUE_SELECTION,
+                        new String[] { account.name, league.league_key });
+                if (numUpdated == 0) {
+                    values.put(COLUMN_ACCOUNT_NAME, account.name);
+                    values.put(COLUMN_LEAGUE_KEY, league.league_key);
+                    db.insert(TABLE_NAME, null, values);
+                }
             }
 
             // Clear any leagues not provided.
@@ -116,6 +228,249 @@ public final class LeagueTable {
         }
     }
 
+    /**
+     * Get the fingerprint of the data last pushed to Wear for a league, as set by
+     * {@link #setPushedFingerprint}, or null if none has been recorded.
+     */
+    @Nullable
+    public static String getPushedFingerprint(Context context, Account account, League league) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getReadableDatabase();
+        Cursor cur = null;
+        try {
+            cur = db.query(TABLE_NAME, new String[] { COLUMN_PUSHED_FINGERPRINT },
+                    LEAGUE_SELECTION, new String[] { account.name, league.league_key }, null, null,
+                    null);
+            if (cur.moveToFirst()) {
+                return cur.getString(0);
+            }
+        } finally {
+            if (cur != null) {
+                cur.close();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Record the fingerprint of the data last pushed to Wear for a league.
+     *
+     * If the fingerprint differs from the previous one, the league's last change time is set to the
+     * current time; see {@link #getLastChangeTimeSec}.
+     */
+    public static void setPushedFingerprint(Context context, Account account, League league,
+            String fingerprint) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_PUSHED_FINGERPRINT, fingerprint);
+        values.put(COLUMN_LAST_CHANGE_TIME_SEC, System.currentTimeMillis() / 1000);
+        db.update(TABLE_NAME, values, LEAGUE_SELECTION + " AND (" + COLUMN_PUSHED_FINGERPRINT
+                        + " IS NULL OR " + COLUMN_PUSHED_FINGERPRINT + "!=?)",
+                new String[] { account.name, league.league_key, fingerprint });
+    }
+
+    /** A matchup which was last pushed to Wear for a league; see {@link #getPushedMatchups}. */
+    public static final class PushedMatchup {
+        public final Matchup matchup;
+        /**
+         * The time, in seconds since the epoch, at which the league was last synced successfully,
+         * or 0 if unknown.
+         */
+        public final long lastSyncTimeSec;
+
+        private PushedMatchup(Matchup matchup, long lastSyncTimeSec) {
+            this.matchup = matchup;
+            this.lastSyncTimeSec = lastSyncTimeSec;
+        }
+    }
+
+    /**
+     * Get the matchup last pushed to Wear for each of the account's leagues, as set by
+     * {@link #setPushedMatchup}, keyed by league key. Leagues with no recorded matchup are absent.
+     */
+    public static Map<String, PushedMatchup> getPushedMatchups(Context context,
+            Account account) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getReadableDatabase();
+        Map<String, PushedMatchup> pushedMatchups = new HashMap<>();
+        Cursor cur = null;
+        try {
+            cur = db.query(TABLE_NAME, new String[] {
+                            COLUMN_LEAGUE_KEY, COLUMN_PUSHED_MATCHUP, COLUMN_LAST_SYNC_TIME_SEC },
+                    COLUMN_ACCOUNT_NAME + "=? AND " + COLUMN_PUSHED_MATCHUP + " IS NOT NULL",
+                    new String[] { account.name }, null, null, null);
+            while (cur.moveToNext()) {
+                Matchup matchup = WireUtil.decodeFromString(cur.getString(1), Matchup.class);
+                if (matchup != null) {
+                    pushedMatchups.put(cur.getString(0),
+                            new PushedMatchup(matchup, cur.isNull(2) ? 0 : cur.getLong(2)));
+                }
+            }
+        } finally {
+            if (cur != null) {
+                cur.close();
+            }
+        }
+        return pushedMatchups;
+    }
+
+    /** Record the matchup last pushed to Wear for a league, so that it can be pushed again. */
+    public static void setPushedMatchup(Context context, Account account, League league,
+            Matchup matchup) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_PUSHED_MATCHUP, WireUtil.encodeToString(matchup));
+        db.update(TABLE_NAME, values, LEAGUE_SELECTION,
+                new String[] { account.name, league.league_key });
+    }
+
+    /**
+     * Get the most recent time, in seconds since the epoch, at which a change was pushed for any
+     * of the account's leagues, or 0 if no change has been recorded.
+     */
+    public static long getLastChangeTimeSec(Context context, Account account) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getReadableDatabase();
+        Cursor cur = null;
+        try {
+            cur = db.query(TABLE_NAME, new String[] { "MAX(" + COLUMN_LAST_CHANGE_TIME_SEC + ")" },
+                    COLUMN_ACCOUNT_NAME + "=?", new String[] { account.name }, null, null, null);
+            if (cur.moveToFirst()) {
+                return cur.getLong(0);
+            }
+        } finally {
+            if (cur != null) {
+                cur.close();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Get the time, in seconds since the epoch, at which a change was last pushed for each of the
+     * account's leagues, keyed by league key. Leagues with no recorded change are absent.
+     */
+    public static Map<String, Long> getLastChangeTimesSec(Context context, Account account) {
+        return getTimesSec(context, account, COLUMN_LAST_CHANGE_TIME_SEC);
+    }
+
+    /**
+     * Get the time, in seconds since the epoch, at which each of the account's leagues was last
+     * synced successfully (whether or not anything was pushed), keyed by league key. Leagues which
+     * have never been synced are absent.
+     */
+    public static Map<String, Long> getLastSyncTimesSec(Context context, Account account) {
+        return getTimesSec(context, account, COLUMN_LAST_SYNC_TIME_SEC);
+    }
+
+    private static Map<String, Long> getTimesSec(Context context, Account account,
+            String column) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getReadableDatabase();
+        Map<String, Long> timesSec = new HashMap<>();
+        Cursor cur = null;
+        try {
+            cur = db.query(TABLE_NAME, new String[] { COLUMN_LEAGUE_KEY, column },
+                    COLUMN_ACCOUNT_NAME + "=? AND " + column + " IS NOT NULL",
+                    new String[] { account.name }, null, null, null);
+            while (cur.moveToNext()) {
+                timesSec.put(cur.getString(0), cur.getLong(1));
+            }
+        } finally {
+            if (cur != null) {
+                cur.close();
+            }
+        }
+        return timesSec;
+    }
+
+    /** Set the time, in seconds since the epoch, at which a league was last synced successfully. */
+    public static void setLastSyncTimeSec(Context context, Account account, League league,
+            long lastSyncTimeSec) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_LAST_SYNC_TIME_SEC, lastSyncTimeSec);
+        db.update(TABLE_NAME, values, LEAGUE_SELECTION,
+                new String[] { account.name, league.league_key });
+    }
+
+    /**
+     * Set the time, in seconds since the epoch, at which a league is next due to be synced. A time
+     * of 0 means that the league is due on every sync. This also clears any deferral.
+     */
+    public static void setNextSyncTimeSec(Context context, Account account, League league,
+            long nextSyncTimeSec) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_NEXT_SYNC_TIME_SEC, nextSyncTimeSec);
+        values.putNull(COLUMN_DEFERRED);
+        db.update(TABLE_NAME, values, LEAGUE_SELECTION,
+                new String[] { account.name, league.league_key });
+    }
+
+    /**
+     * Mark a league as deferred, e.g. because a sync ran out of time before reaching it, so that it
+     * is due on the next sync regardless of its next sync time. The deferral is cleared once the
+     * league's next sync time is set again.
+     */
+    public static void setDeferred(Context context, Account account, League league) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_DEFERRED, 1);
+        db.update(TABLE_NAME, values, LEAGUE_SELECTION,
+                new String[] { account.name, league.league_key });
+    }
+
+    /**
+     * Set whether a league's season is over, i.e. its current week is over and archived (see
+     * {@link MatchupArchiveTable}), so that there is nothing left to sync.
+     */
+    public static void setFinished(Context context, Account account, League league,
+            boolean finished) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getWritableDatabase();
+        ContentValues values = new ContentValues();
+        if (finished) {
+            values.put(COLUMN_FINISHED, 1);
+        } else {
+            values.putNull(COLUMN_FINISHED);
+        }
+        db.update(TABLE_NAME, values, LEAGUE_SELECTION,
+                new String[] { account.name, league.league_key });
+    }
+
+    /** Get the number of consecutive failures recorded for a league. */
+    public static int getFailureCount(Context context, Account account, League league) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getReadableDatabase();
+        Cursor cur = null;
+        try {
+            cur = db.query(TABLE_NAME, new String[] { COLUMN_FAILURE_COUNT }, LEAGUE_SELECTION,
+                    new String[] { account.name, league.league_key }, null, null, null);
+            if (cur.moveToFirst()) {
+                return cur.getInt(0);
+            }
+        } finally {
+            if (cur != null) {
+                cur.close();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Record the number of consecutive failures for a league, and the time, in seconds since the
+     * epoch, before which it should not be synced again. A failure count of 0 clears the state.
+     */
+    public static void setFailureState(Context context, Account account, League league,
+            int failureCount, long retryAfterSec) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getWritableDatabase();
+        ContentValues values = new ContentValues();
+        if (failureCount > 0) {
+            values.put(COLUMN_FAILURE_COUNT, failureCount);
+            values.put(COLUMN_RETRY_AFTER_SEC, retryAfterSec);
+        } else {
+            values.putNull(COLUMN_FAILURE_COUNT);
+            values.putNull(COLUMN_RETRY_AFTER_SEC);
+        }
+        db.update(TABLE_NAME, values, LEAGUE_SELECTION,
+                new String[] { account.name, league.league_key });
+    }
+
     @VisibleForTesting
     static void clear(Context context) {
         FWSQLiteDatabase.getInstance(context).getWritableDatabase().delete(TABLE_NAME, null, null);
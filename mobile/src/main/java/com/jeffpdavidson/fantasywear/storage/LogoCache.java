@@ -0,0 +1,174 @@
+package com.jeffpdavidson.fantasywear.storage;
+
+import android.content.Context;
+import android.support.annotation.Nullable;
+import android.util.Base64;
+
+import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
+import com.jeffpdavidson.fantasywear.log.FWLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File cache of team logos, keyed by logo URL, in the encoded form that is pushed to Wear.
+ *
+ * Logos are stored in the app's cache directory, so the system may remove them when low on
+ * storage; callers must be prepared to fetch a logo again if it is missing. Failures to read or
+ * write the cache are logged and otherwise treated as cache misses.
+ *
+ * Each hit marks the logo as used, and {@link #prune} removes logos which haven't been used for
+ * {@link #MAX_UNUSED_AGE_MS}, e.g. those of teams in past seasons, so the cache doesn't grow
+ * without bound.
+ */
+public final class LogoCache {
+    private static final String DIRECTORY_NAME = "logos";
+
+    /** How long a logo may go unused before {@link #prune} removes it. */
+    @VisibleForTesting
+    static final long MAX_UNUSED_AGE_MS = TimeUnit.DAYS.toMillis(30);
+
+    private LogoCache() {}
+
+    /** Get the cached logo for the given URL, or null if it isn't cached. */
+    @Nullable
+    public static byte[] get(Context context, String logoUrl) {
+        File file = getFile(context, logoUrl);
+        if (!file.exists()) {
+            return null;
+        }
+        markUsed(file);
+        InputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) file.length());
+            byte[] buffer = new byte[8192];
+            int numRead;
+            while ((numRead = in.read(buffer)) != -1) {
+                out.write(buffer, 0, numRead);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            FWLog.e(e, "Unable to read cached logo for %s", logoUrl);
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /** Whether a logo is cached for the given URL. */
+    public static boolean contains(Context context, String logoUrl) {
+        File file = getFile(context, logoUrl);
+        if (!file.exists()) {
+            return false;
+        }
+        markUsed(file);
+        return true;
+    }
+
+    /** Cache the logo for the given URL, replacing any existing one. */
+    public static void put(Context context, String logoUrl, byte[] logo) {
+        File file = getFile(context, logoUrl);
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            FWLog.e("Unable to create logo cache directory");
+            return;
+        }
+        // Write to a temporary file and rename it into place, so that readers never see a
+        // partially written logo.
+        File tempFile = new File(dir, file.getName() + ".tmp" + Thread.currentThread().getId());
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(tempFile);
+            out.write(logo);
+            out.close();
+            out = null;
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Unable to rename " + tempFile);
+            }
+        } catch (IOException e) {
+            FWLog.e(e, "Unable to cache logo for %s", logoUrl);
+            tempFile.delete();
+        } finally {
+            closeQuietly(out);
+        }
+    }
+
+    /**
+     * Remove logos which haven't been used for {@link #MAX_UNUSED_AGE_MS}. Temporary files left
+     * behind by interrupted writes are removed once they are as old.
+     */
+    public static void prune(Context context) {
+        prune(context, System.currentTimeMillis());
+    }
+
+    @VisibleForTesting
+    static void prune(Context context, long currentTimeMs) {
+        File[] files = new File(context.getCacheDir(), DIRECTORY_NAME).listFiles();
+        if (files == null) {
+            return;
+        }
+        int numPruned = 0;
+        for (File file : files) {
+            if (currentTimeMs - file.lastModified() >= MAX_UNUSED_AGE_MS && file.delete()) {
+                numPruned++;
+            }
+        }
+        FWLog.d("Pruned %d of %d cached logos", numPruned, files.length);
+    }
+
+    @VisibleForTesting
+    static void clear(Context context) {
+        File[] files = new File(context.getCacheDir(), DIRECTORY_NAME).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    @VisibleForTesting
+    static File getFile(Context context, String logoUrl) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 must be a supported algorithm", e);
+        }
+        byte[] logoUrlBytes;
+        try {
+            logoUrlBytes = logoUrl.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 must be a supported encoding", e);
+        }
+        String name = Base64.encodeToString(digest.digest(logoUrlBytes),
+                Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING);
+        return new File(new File(context.getCacheDir(), DIRECTORY_NAME), name);
+    }
+
+    /** Mark a cached logo as used, so that {@link #prune} keeps it. */
+    private static void markUsed(File file) {
+        // Failure only means the logo may be pruned, and fetched again, sooner.
+        file.setLastModified(System.currentTimeMillis());
+    }
+
+    private static void closeQuietly(@Nullable Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // Ignore; there's nothing more to do.
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.jeffpdavidson.fantasywear.storage;
+
+import android.accounts.Account;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
+import com.jeffpdavidson.fantasywear.api.model.League;
+import com.jeffpdavidson.fantasywear.api.model.Matchup;
+import com.jeffpdavidson.fantasywear.util.WireUtil;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * SQLite table which archives the user's final matchup for each completed week of each league.
+ *
+ * A completed week's scoreboard never changes again, so archived matchups are immutable: archiving
+ * a week which is already archived has no effect, and an archived week never needs to be fetched
+ * from the network again. A week which has no matchup to archive, e.g. because it was a bye, is
+ * recorded as unavailable, so that it isn't fetched again either. Unlike the {@link LeagueTable},
+ * the archive outlives the leagues themselves (e.g. after the season ends); it is only removed
+ * along with its account.
+ */
+public final class MatchupArchiveTable {
+    private static final String TABLE_NAME = "matchup_archive";
+    private static final String COLUMN_ACCOUNT_NAME = "account_name";
+    private static final String COLUMN_LEAGUE_KEY = "league_key";
+    private static final String COLUMN_WEEK = "week";
+    private static final String COLUMN_MATCHUP = "matchup";
+
+    private MatchupArchiveTable() {}
+
+    static void createTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_NAME + " " + "("
+                + COLUMN_ACCOUNT_NAME + " TEXT REFERENCES " + TokenTable.TABLE_NAME
+                        + "(" + TokenTable.COLUMN_ACCOUNT_NAME + ") ON DELETE CASCADE, "
+                + COLUMN_LEAGUE_KEY + " TEXT, "
+                + COLUMN_WEEK + " INTEGER, "
+                + COLUMN_MATCHUP + " TEXT, "
+                + "PRIMARY KEY(" + COLUMN_ACCOUNT_NAME + "," + COLUMN_LEAGUE_KEY + ","
+                        + COLUMN_WEEK + ")"
+                + ");");
+    }
+
+    static void upgradeTable(SQLiteDatabase db, int oldVersion) {
+        if (oldVersion < 9) {
+            createTable(db);
+        }
+    }
+
+    /**
+     * Archive the final matchup of a completed week, unless that week is already archived.
+     *
+     * @throws IllegalArgumentException if the matchup has no week
+     */
+    public static void archiveMatchup(Context context, Account account, League league,
+            Matchup matchup) {
+        if (matchup.week == null) {
+            throw new IllegalArgumentException("Cannot archive a matchup with no week");
+        }
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_ACCOUNT_NAME, account.name);
+        values.put(COLUMN_LEAGUE_KEY, league.league_key);
+        values.put(COLUMN_WEEK, matchup.week);
+        values.put(COLUMN_MATCHUP, WireUtil.encodeToString(matchup));
+        db.insertWithOnConflict(TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE);
+    }
+
+    /**
+     * Record that a week of a league has no matchup to archive, unless that week is already
+     * archived. The week counts as archived, but has no matchup in {@link #getMatchups}.
+     */
+    public static void archiveUnavailable(Context context, Account account, League league,
+            int week) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_ACCOUNT_NAME, account.name);
+        values.put(COLUMN_LEAGUE_KEY, league.league_key);
+        values.put(COLUMN_WEEK, week);
+        values.putNull(COLUMN_MATCHUP);
+        db.insertWithOnConflict(TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE);
+    }
+
+    /** Whether the given week of a league is archived, or recorded as unavailable. */
+    public static boolean isArchived(Context context, Account account, League league, int week) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getReadableDatabase();
+        Cursor cur = null;
+        try {
+            cur = db.query(TABLE_NAME, new String[] { COLUMN_WEEK },
+                    COLUMN_ACCOUNT_NAME + "=? AND " + COLUMN_LEAGUE_KEY + "=? AND "
+                            + COLUMN_WEEK + "=?",
+                    new String[] { account.name, league.league_key, Integer.toString(week) },
+                    null, null, null);
+            return cur.moveToFirst();
+        } finally {
+            if (cur != null) {
+                cur.close();
+            }
+        }
+    }
+
+    /**
+     * Get the archived matchups of a league, keyed and sorted by week. Weeks recorded as
+     * unavailable are omitted.
+     */
+    public static SortedMap<Integer, Matchup> getMatchups(Context context, Account account,
+            League league) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getReadableDatabase();
+        SortedMap<Integer, Matchup> matchups = new TreeMap<>();
+        Cursor cur = null;
+        try {
+            cur = db.query(TABLE_NAME, new String[] { COLUMN_WEEK, COLUMN_MATCHUP },
+                    COLUMN_ACCOUNT_NAME + "=? AND " + COLUMN_LEAGUE_KEY + "=? AND "
+                            + COLUMN_MATCHUP + " IS NOT NULL",
+                    new String[] { account.name, league.league_key }, null, null, null);
+            while (cur.moveToNext()) {
+                Matchup matchup = WireUtil.decodeFromString(cur.getString(1), Matchup.class);
+                if (matchup != null) {
+                    matchups.put(cur.getInt(0), matchup);
+                }
+            }
+        } finally {
+            if (cur != null) {
+                cur.close();
+            }
+        }
+        return matchups;
+    }
+
+    @VisibleForTesting
+    static void clear(Context context) {
+        FWSQLiteDatabase.getInstance(context).getWritableDatabase().delete(TABLE_NAME, null, null);
+    }
+}
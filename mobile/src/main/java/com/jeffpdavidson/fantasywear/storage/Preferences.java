@@ -3,8 +3,13 @@ package com.jeffpdavidson.fantasywear.storage;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import com.jeffpdavidson.fantasywear.api.model.League;
+
 import com.jeffpdavidson.fantasywear.sync.SyncAdapter;
 
+import java.util.HashSet;
+import java.util.Set;
+
 /** SharedPreferences for FantasyWear. */
 public final class Preferences {
     private static final String PREF_FILE = "prefs";
@@ -12,6 +17,16 @@ public final class Preferences {
     private static final String KEY_SYNC_INTERVAL_SEC = "sync_interval_sec";
     private static final int DEFAULT_SYNC_INTERVAL_SEC = 30 * 60; // 30 minutes
 
+    private static final String KEY_SYNC_LEAGUE_BUDGET = "sync_league_budget";
+    /** By default, every due league is synced on every sync. */
+    private static final int DEFAULT_SYNC_LEAGUE_BUDGET = 0;
+
+    /** Pinned leagues, as account name and league key separated by a slash. */
+    private static final String KEY_PINNED_LEAGUES = "pinned_leagues";
+
+    private static final String KEY_USE_JOB_SCHEDULER = "use_job_scheduler";
+    private static final String KEY_SYNC_ON_UNMETERED_ONLY = "sync_on_unmetered_only";
+
     private Preferences() {}
 
     private static volatile SharedPreferences sPrefs;
@@ -35,4 +50,79 @@ public final class Preferences {
         SyncAdapter.setPeriodicSyncIntervalSec(context, syncIntervalSec);
         getPrefs(context).edit().putInt(KEY_SYNC_INTERVAL_SEC, syncIntervalSec).apply();
     }
+
+    /**
+     * Get the maximum number of leagues to sync per periodic sync, across all accounts, or 0 if
+     * every due league should be synced.
+     */
+    public static int getSyncLeagueBudget(Context context) {
+        return getPrefs(context).getInt(KEY_SYNC_LEAGUE_BUDGET, DEFAULT_SYNC_LEAGUE_BUDGET);
+    }
+
+    public static void setSyncLeagueBudget(Context context, int syncLeagueBudget) {
+        getPrefs(context).edit().putInt(KEY_SYNC_LEAGUE_BUDGET, syncLeagueBudget).apply();
+    }
+
+    /**
+     * Whether syncs are scheduled with JobScheduler rather than the sync adapter framework; see
+     * {@link com.jeffpdavidson.fantasywear.sync.SyncJobService}.
+     */
+    public static boolean getUseJobScheduler(Context context) {
+        return getPrefs(context).getBoolean(KEY_USE_JOB_SCHEDULER, false);
+    }
+
+    public static void setUseJobScheduler(Context context, boolean useJobScheduler) {
+        getPrefs(context).edit().putBoolean(KEY_USE_JOB_SCHEDULER, useJobScheduler).apply();
+        // Move the periodic sync over to the selected scheduler.
+        SyncAdapter.setPeriodicSyncIntervalSec(context, getSyncIntervalSec(context));
+    }
+
+    /**
+     * Whether periodic syncs only run on unmetered networks. Only supported when syncs are
+     * scheduled with JobScheduler.
+     */
+    public static boolean getSyncOnUnmeteredOnly(Context context) {
+        return getPrefs(context).getBoolean(KEY_SYNC_ON_UNMETERED_ONLY, false);
+    }
+
+    public static void setSyncOnUnmeteredOnly(Context context, boolean syncOnUnmeteredOnly) {
+        getPrefs(context).edit()
+                .putBoolean(KEY_SYNC_ON_UNMETERED_ONLY, syncOnUnmeteredOnly).apply();
+        SyncAdapter.setPeriodicSyncIntervalSec(context, getSyncIntervalSec(context));
+    }
+
+    /** Get the keys of the given account's leagues which are synced on every periodic sync. */
+    public static Set<String> getPinnedLeagueKeys(Context context, String accountName) {
+        String prefix = accountName + "/";
+        Set<String> pinnedLeagueKeys = new HashSet<>();
+        for (String pinnedLeague : getPinnedLeagues(context)) {
+            if (pinnedLeague.startsWith(prefix)) {
+                pinnedLeagueKeys.add(pinnedLeague.substring(prefix.length()));
+            }
+        }
+        return pinnedLeagueKeys;
+    }
+
+    public static boolean isLeaguePinned(Context context, League league) {
+        return getPinnedLeagues(context).contains(getPinnedLeague(league));
+    }
+
+    public static void setLeaguePinned(Context context, League league, boolean pinned) {
+        // The returned set must not be modified, so copy it.
+        Set<String> pinnedLeagues = new HashSet<>(getPinnedLeagues(context));
+        if (pinned) {
+            pinnedLeagues.add(getPinnedLeague(league));
+        } else {
+            pinnedLeagues.remove(getPinnedLeague(league));
+        }
+        getPrefs(context).edit().putStringSet(KEY_PINNED_LEAGUES, pinnedLeagues).apply();
+    }
+
+    private static Set<String> getPinnedLeagues(Context context) {
+        return getPrefs(context).getStringSet(KEY_PINNED_LEAGUES, new HashSet<String>());
+    }
+
+    private static String getPinnedLeague(League league) {
+        return league.account_name + "/" + league.league_key;
+    }
 }
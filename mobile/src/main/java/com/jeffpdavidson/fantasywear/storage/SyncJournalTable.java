@@ -0,0 +1,137 @@
+package com.jeffpdavidson.fantasywear.storage;
+
+import android.accounts.Account;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.annotation.Nullable;
+
+import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
+import com.jeffpdavidson.fantasywear.api.model.League;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * SQLite table which journals the progress of each account's current sync generation.
+ *
+ * When a sync of an account's leagues starts, a row is written for each league in it. Each row is
+ * removed as soon as its league is done, and any remaining rows are removed when the generation
+ * finishes. If the sync is killed or fails partway through, the remaining rows describe the
+ * leagues that still need to be synced, so the next sync can resume with just those.
+ */
+public final class SyncJournalTable {
+    private static final String TABLE_NAME = "sync_journal";
+    private static final String COLUMN_ACCOUNT_NAME = "account_name";
+    private static final String COLUMN_LEAGUE_KEY = "league_key";
+    private static final String COLUMN_START_TIME_SEC = "start_time_sec";
+    private static final String COLUMN_FORCED = "forced";
+
+    private SyncJournalTable() {}
+
+    static void createTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_NAME + " " + "("
+                + COLUMN_ACCOUNT_NAME + " TEXT, "
+                + COLUMN_LEAGUE_KEY + " TEXT, "
+                + COLUMN_START_TIME_SEC + " INTEGER, "
+                + COLUMN_FORCED + " INTEGER, "
+                + "PRIMARY KEY(" + COLUMN_ACCOUNT_NAME + "," + COLUMN_LEAGUE_KEY + "), "
+                + "FOREIGN KEY(" + COLUMN_ACCOUNT_NAME + "," + COLUMN_LEAGUE_KEY + ") "
+                        + "REFERENCES " + LeagueTable.TABLE_NAME + "("
+                        + LeagueTable.COLUMN_ACCOUNT_NAME + "," + LeagueTable.COLUMN_LEAGUE_KEY
+                        + ") ON DELETE CASCADE"
+                + ");");
+    }
+
+    static void upgradeTable(SQLiteDatabase db, int oldVersion) {
+        if (oldVersion < 6) {
+            createTable(db);
+        }
+    }
+
+    /** An unfinished sync generation. */
+    public static final class Generation {
+        /** Keys of the leagues which weren't done when the generation was interrupted. */
+        public final Set<String> pendingLeagueKeys;
+        /** Whether the generation pushed every league to Wear, even if unchanged. */
+        public final boolean forced;
+
+        private Generation(Set<String> pendingLeagueKeys, boolean forced) {
+            this.pendingLeagueKeys = pendingLeagueKeys;
+            this.forced = forced;
+        }
+    }
+
+    /**
+     * Start a new sync generation for the given leagues, replacing any unfinished one for the
+     * account.
+     */
+    public static void startGeneration(Context context, Account account, League[] leagues,
+            boolean forced, long startTimeSec) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_NAME, COLUMN_ACCOUNT_NAME + "=?", new String[] { account.name });
+            ContentValues values = new ContentValues();
+            values.put(COLUMN_ACCOUNT_NAME, account.name);
+            values.put(COLUMN_START_TIME_SEC, startTimeSec);
+            values.put(COLUMN_FORCED, forced ? 1 : 0);
+            for (League league : leagues) {
+                values.put(COLUMN_LEAGUE_KEY, league.league_key);
+                db.insert(TABLE_NAME, null, values);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Get the account's unfinished sync generation, or null if there is none. Generations started
+     * before minStartTimeSec are considered too stale to resume, and are ignored.
+     */
+    @Nullable
+    public static Generation getUnfinishedGeneration(Context context, Account account,
+            long minStartTimeSec) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getReadableDatabase();
+        Cursor cur = null;
+        try {
+            cur = db.query(TABLE_NAME, new String[] { COLUMN_LEAGUE_KEY, COLUMN_FORCED },
+                    COLUMN_ACCOUNT_NAME + "=? AND " + COLUMN_START_TIME_SEC + ">=?",
+                    new String[] { account.name, Long.toString(minStartTimeSec) },
+                    null, null, null);
+            if (!cur.moveToFirst()) {
+                return null;
+            }
+            Set<String> pendingLeagueKeys = new HashSet<>();
+            boolean forced = cur.getInt(1) != 0;
+            do {
+                pendingLeagueKeys.add(cur.getString(0));
+            } while (cur.moveToNext());
+            return new Generation(pendingLeagueKeys, forced);
+        } finally {
+            if (cur != null) {
+                cur.close();
+            }
+        }
+    }
+
+    /** Record that a league in the account's current generation is done. */
+    public static void markLeagueDone(Context context, Account account, League league) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getWritableDatabase();
+        db.delete(TABLE_NAME, COLUMN_ACCOUNT_NAME + "=? AND " + COLUMN_LEAGUE_KEY + "=?",
+                new String[] { account.name, league.league_key });
+    }
+
+    /** Finish the account's current generation, discarding any leagues which remain. */
+    public static void finishGeneration(Context context, Account account) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getWritableDatabase();
+        db.delete(TABLE_NAME, COLUMN_ACCOUNT_NAME + "=?", new String[] { account.name });
+    }
+
+    @VisibleForTesting
+    static void clear(Context context) {
+        FWSQLiteDatabase.getInstance(context).getWritableDatabase().delete(TABLE_NAME, null, null);
+    }
+}
@@ -9,6 +9,8 @@ import android.database.sqlite.SQLiteDatabase;
 import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
 import com.jeffpdavidson.fantasywear.api.auth.Token;
 
+import java.util.Collection;
+
 /**
  * SQLite table which contains the user's auth credentials.
  *
@@ -140,6 +142,24 @@ public final class TokenTable {
         db.update(TABLE_NAME, values, COLUMN_ACCOUNT_NAME + "=?", new String[] { account.name });
     }
 
+    /** Set the last sync time for each of the given accounts, in a single transaction. */
+    public static void setLastSyncTimeSec(Context context, Collection<Account> accounts,
+            long lastSyncTimeSec) {
+        SQLiteDatabase db = FWSQLiteDatabase.getInstance(context).getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_LAST_SYNC_TIME_SEC, lastSyncTimeSec);
+        db.beginTransaction();
+        try {
+            for (Account account : accounts) {
+                db.update(TABLE_NAME, values, COLUMN_ACCOUNT_NAME + "=?",
+                        new String[] { account.name });
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
     @VisibleForTesting
     static void clear(Context context) {
         FWSQLiteDatabase.getInstance(context).getWritableDatabase().delete(TABLE_NAME, null, null);
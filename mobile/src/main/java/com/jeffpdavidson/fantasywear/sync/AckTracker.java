@@ -0,0 +1,112 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.support.v4.content.LocalBroadcastManager;
+
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.jeffpdavidson.fantasywear.log.FWLog;
+import com.jeffpdavidson.fantasywear.protocol.Paths;
+import com.jeffpdavidson.fantasywear.util.LocalBroadcasts;
+import com.jeffpdavidson.fantasywear.util.MessageApiUtil;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tracks acknowledgements from the wear device for league data sent during a sync.
+ *
+ * It appears that on the initial sync, the first n updates get queued but never delivered, only for
+ * all of them to come at once after the n+1st. To work around this, callers {@link #expect} an ACK
+ * for each league they push, then {@link #awaitAll} the ACKs, which periodically sends a cheap
+ * {@link Paths#PROBE} message for each league that hasn't been acknowledged yet.
+ *
+ * {@link #register} must be called before pushing any data, so that no ACKs are missed, and
+ * {@link #unregister} must be called when done.
+ */
+final class AckTracker {
+    private final Context mContext;
+
+    /** Paths of league URIs which have not yet been acknowledged. Guarded by this. */
+    private final Set<String> mPendingPaths = new HashSet<>();
+
+    private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            String path = intent.getData().getPath();
+            synchronized (AckTracker.this) {
+                if (mPendingPaths.remove(path)) {
+                    FWLog.v("Received matching ACK from wear device for %s", path);
+                    AckTracker.this.notifyAll();
+                } else {
+                    FWLog.w("Unexpected ACK: %s", path);
+                }
+            }
+        }
+    };
+
+    AckTracker(Context context) {
+        mContext = context;
+    }
+
+    void register() {
+        IntentFilter filter = new IntentFilter(LocalBroadcasts.ACTION_ACK);
+        filter.addDataScheme("wear");
+        LocalBroadcastManager.getInstance(mContext).registerReceiver(mReceiver, filter);
+    }
+
+    void unregister() {
+        LocalBroadcastManager.getInstance(mContext).unregisterReceiver(mReceiver);
+    }
+
+    /** Note that an ACK is expected for the given league URI. */
+    synchronized void expect(Uri leagueUri) {
+        mPendingPaths.add(leagueUri.getPath());
+    }
+
+    /**
+     * Wait until all expected ACKs have arrived, or the timeout expires.
+     *
+     * @param googleApiClient a connected client used to send probes
+     * @param timeoutMs the overall time to wait for all ACKs
+     * @param probePeriodMs how long to wait for ACKs before probing the remaining leagues
+     * @return the number of leagues which were never acknowledged
+     */
+    int awaitAll(GoogleApiClient googleApiClient, long timeoutMs, long probePeriodMs)
+            throws InterruptedException {
+        long deadline = SystemClock.elapsedRealtime() + timeoutMs;
+        long nextProbe = SystemClock.elapsedRealtime() + probePeriodMs;
+        while (true) {
+            List<String> probePaths;
+            synchronized (this) {
+                long now;
+                while (!mPendingPaths.isEmpty()
+                        && (now = SystemClock.elapsedRealtime()) < Math.min(deadline, nextProbe)) {
+                    wait(Math.min(deadline, nextProbe) - now);
+                }
+                if (mPendingPaths.isEmpty() || SystemClock.elapsedRealtime() >= deadline) {
+                    return mPendingPaths.size();
+                }
+                probePaths = new ArrayList<>(mPendingPaths);
+            }
+            // Probe outside the lock so that ACKs can be processed while we send.
+            FWLog.v("ACK not received for %d leagues, probing", probePaths.size());
+            for (String path : probePaths) {
+                try {
+                    MessageApiUtil.sendMessage(
+                            googleApiClient, Paths.PROBE, path.getBytes("UTF-8"));
+                } catch (UnsupportedEncodingException e) {
+                    throw new IllegalStateException("UTF-8 must be a supported encoding", e);
+                }
+            }
+            nextProbe = SystemClock.elapsedRealtime() + probePeriodMs;
+        }
+    }
+}
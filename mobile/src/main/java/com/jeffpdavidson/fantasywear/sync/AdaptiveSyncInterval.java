@@ -0,0 +1,35 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+/**
+ * Computes how long to wait before the next periodic sync, based on how recently scores changed.
+ *
+ * Right after a score change, we sync every {@link #MIN_SYNC_INTERVAL_SEC}. While scores stay
+ * static, the interval grows with the time since the last change. Since each sync then happens
+ * roughly as long after the last change as the previous sync did, this doubles the interval with
+ * every static sync, until it reaches the user-selected interval. Intervals shorter than the sync
+ * adapter framework allows for periodic syncs are scheduled with a one-off job instead; see
+ * {@link SyncAdapter#setPeriodicSyncIntervalSec}.
+ */
+final class AdaptiveSyncInterval {
+    static final int MIN_SYNC_INTERVAL_SEC = 2 * 60; // 2 minutes
+
+    private AdaptiveSyncInterval() {}
+
+    /**
+     * Get the sync interval to use.
+     *
+     * @param lastChangeTimeSec the last time a score changed, in seconds since the epoch, or 0 if
+     *                          unknown
+     * @param currentTimeSec the current time, in seconds since the epoch
+     * @param maxSyncIntervalSec the user-selected sync interval, which is never exceeded
+     */
+    static int getSyncIntervalSec(long lastChangeTimeSec, long currentTimeSec,
+            int maxSyncIntervalSec) {
+        if (lastChangeTimeSec <= 0 || lastChangeTimeSec > currentTimeSec) {
+            return maxSyncIntervalSec;
+        }
+        long sinceChangeSec = currentTimeSec - lastChangeTimeSec;
+        long intervalSec = Math.max(MIN_SYNC_INTERVAL_SEC, sinceChangeSec);
+        return (int) Math.min(maxSyncIntervalSec, intervalSec);
+    }
+}
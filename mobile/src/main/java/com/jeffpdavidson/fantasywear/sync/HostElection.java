@@ -0,0 +1,175 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.accounts.Account;
+import android.content.Context;
+import android.net.Uri;
+
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.common.api.Status;
+import com.google.android.gms.wearable.CapabilityApi;
+import com.google.android.gms.wearable.CapabilityInfo;
+import com.google.android.gms.wearable.Node;
+import com.google.android.gms.wearable.NodeApi;
+import com.google.android.gms.wearable.Wearable;
+import com.google.android.gms.wearable.WearableStatusCodes;
+import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
+import com.jeffpdavidson.fantasywear.log.FWLog;
+import com.jeffpdavidson.fantasywear.util.Constants;
+import com.jeffpdavidson.fantasywear.util.WearableConnection;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elects a single host to sync each account when the same account is signed in on several devices
+ * connected to the same wear device, so that only one of them polls Yahoo and pushes league data.
+ *
+ * Every host advertises a capability for each of its accounts (see {@link #getCapabilityName}).
+ * The owner of an account is the reachable host with the lowest node ID advertising its capability;
+ * the other hosts leave the account alone. When the owner disappears, its capability is no longer
+ * reachable, and the next host takes the account over on its next sync, or right away when it is
+ * notified of the change (see {@link com.jeffpdavidson.fantasywear.services.ListenerService}).
+ */
+public final class HostElection {
+    public static final String CAPABILITY_PREFIX = "fantasywear_sync_";
+
+    private HostElection() {}
+
+    /**
+     * Get the accounts, among the given ones, which this host should sync, advertising this host
+     * for each of them. If the election can't be run, every account is returned, since syncing an
+     * account twice is better than not at all.
+     */
+    public static Account[] getOwnedAccounts(Context context, Account[] accounts) {
+        if (accounts.length == 0) {
+            return accounts;
+        }
+        WearableConnection wearableConnection = WearableConnection.getInstance(context);
+        try {
+            GoogleApiClient googleApiClient = wearableConnection.blockingAcquire();
+            try {
+                return getOwnedAccounts(googleApiClient, accounts);
+            } finally {
+                wearableConnection.release();
+            }
+        } catch (IOException e) {
+            FWLog.e(e, "Unable to elect sync hosts; syncing every account");
+            return accounts;
+        }
+    }
+
+    private static Account[] getOwnedAccounts(GoogleApiClient googleApiClient, Account[] accounts)
+            throws IOException {
+        NodeApi.GetLocalNodeResult localNodeResult = Wearable.NodeApi
+                .getLocalNode(googleApiClient)
+                .await(Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS);
+        checkStatus(localNodeResult.getStatus(), "get local node");
+        String localNodeId = localNodeResult.getNode().getId();
+        advertise(googleApiClient, localNodeId, accounts);
+
+        List<Account> ownedAccounts = new ArrayList<>(accounts.length);
+        for (Account account : accounts) {
+            CapabilityApi.GetCapabilityResult result = Wearable.CapabilityApi
+                    .getCapability(googleApiClient, getCapabilityName(account.name),
+                            CapabilityApi.FILTER_REACHABLE)
+                    .await(Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS);
+            checkStatus(result.getStatus(), "get capability");
+            Set<String> nodeIds = new HashSet<>();
+            nodeIds.add(localNodeId);
+            for (Node node : result.getCapability().getNodes()) {
+                nodeIds.add(node.getId());
+            }
+            String ownerId = electOwner(nodeIds);
+            if (ownerId.equals(localNodeId)) {
+                ownedAccounts.add(account);
+            } else {
+                FWLog.i("Account %s is synced by node %s", account.name, ownerId);
+            }
+        }
+        return ownedAccounts.toArray(new Account[ownedAccounts.size()]);
+    }
+
+    /**
+     * Advertise this host's capability for each of the given accounts, and withdraw it for any
+     * accounts which were removed.
+     */
+    private static void advertise(GoogleApiClient googleApiClient, String localNodeId,
+            Account[] accounts) throws IOException {
+        Set<String> capabilityNames = new HashSet<>();
+        for (Account account : accounts) {
+            capabilityNames.add(getCapabilityName(account.name));
+        }
+
+        CapabilityApi.GetAllCapabilitiesResult result = Wearable.CapabilityApi
+                .getAllCapabilities(googleApiClient, CapabilityApi.FILTER_ALL)
+                .await(Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS);
+        checkStatus(result.getStatus(), "get capabilities");
+        Set<String> advertisedNames = new HashSet<>();
+        for (Map.Entry<String, CapabilityInfo> entry : result.getAllCapabilities().entrySet()) {
+            String name = entry.getKey();
+            if (!name.startsWith(CAPABILITY_PREFIX)) {
+                continue;
+            }
+            for (Node node : entry.getValue().getNodes()) {
+                if (node.getId().equals(localNodeId)) {
+                    advertisedNames.add(name);
+                }
+            }
+        }
+
+        for (String name : advertisedNames) {
+            if (!capabilityNames.contains(name)) {
+                FWLog.d("Withdrawing capability %s", name);
+                checkStatus(Wearable.CapabilityApi.removeLocalCapability(googleApiClient, name)
+                        .await(Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS)
+                        .getStatus(), "remove capability");
+            }
+        }
+        for (String name : capabilityNames) {
+            if (!advertisedNames.contains(name)) {
+                FWLog.d("Advertising capability %s", name);
+                Status status = Wearable.CapabilityApi.addLocalCapability(googleApiClient, name)
+                        .await(Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS)
+                        .getStatus();
+                // The capability may already be advertised if it wasn't visible above yet.
+                if (status.getStatusCode() != WearableStatusCodes.DUPLICATE_CAPABILITY) {
+                    checkStatus(status, "add capability");
+                }
+            }
+        }
+    }
+
+    /** Get the name of the capability advertised by every host which has the given account. */
+    @VisibleForTesting
+    static String getCapabilityName(String accountName) {
+        // Capability names are used in URI paths, so escape the account name.
+        return CAPABILITY_PREFIX + Uri.encode(accountName);
+    }
+
+    /** Pick the owner among the IDs of the nodes which have an account. */
+    @VisibleForTesting
+    static String electOwner(Collection<String> nodeIds) {
+        String ownerId = null;
+        for (String nodeId : nodeIds) {
+            if (ownerId == null || nodeId.compareTo(ownerId) < 0) {
+                ownerId = nodeId;
+            }
+        }
+        if (ownerId == null) {
+            throw new IllegalArgumentException("No nodes to elect an owner from");
+        }
+        return ownerId;
+    }
+
+    private static void checkStatus(Status status, String operation) throws IOException {
+        if (!status.isSuccess()) {
+            throw new IOException("Failed to " + operation + ", status = " + status);
+        }
+    }
+}
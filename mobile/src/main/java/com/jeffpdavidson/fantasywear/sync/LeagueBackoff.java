@@ -0,0 +1,44 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Determines how long to skip a league for after it fails to sync.
+ *
+ * Leagues which fail in a way that is unlikely to resolve itself soon, such as an unsupported
+ * matchup format or a league that no longer exists, are skipped for
+ * {@link #PERMANENT_FAILURE_COOLDOWN_SEC}. Other failures back off exponentially, starting at
+ * {@link #MIN_COOLDOWN_SEC} and doubling with each consecutive failure up to
+ * {@link #MAX_COOLDOWN_SEC}.
+ */
+final class LeagueBackoff {
+    @VisibleForTesting
+    static final long MIN_COOLDOWN_SEC = TimeUnit.MINUTES.toSeconds(5);
+    @VisibleForTesting
+    static final long MAX_COOLDOWN_SEC = TimeUnit.HOURS.toSeconds(6);
+    @VisibleForTesting
+    static final long PERMANENT_FAILURE_COOLDOWN_SEC = TimeUnit.DAYS.toSeconds(1);
+
+    private LeagueBackoff() {}
+
+    /**
+     * Get the time before which a failing league should not be synced again.
+     *
+     * @param failureCount the number of consecutive failures, including this one
+     * @param isPermanent whether the failure is unlikely to resolve itself soon
+     * @param currentTimeSec the current time, in seconds since the epoch
+     * @return the retry time, in seconds since the epoch
+     */
+    static long getRetryAfterSec(int failureCount, boolean isPermanent, long currentTimeSec) {
+        if (isPermanent) {
+            return currentTimeSec + PERMANENT_FAILURE_COOLDOWN_SEC;
+        }
+        long cooldownSec = MIN_COOLDOWN_SEC;
+        for (int i = 1; i < failureCount && cooldownSec < MAX_COOLDOWN_SEC; i++) {
+            cooldownSec *= 2;
+        }
+        return currentTimeSec + Math.min(cooldownSec, MAX_COOLDOWN_SEC);
+    }
+}
@@ -0,0 +1,105 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.support.annotation.Nullable;
+
+import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
+import com.jeffpdavidson.fantasywear.api.model.League;
+import com.jeffpdavidson.fantasywear.api.model.Matchup;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders leagues so that the ones the user is most likely to be watching are synced first.
+ *
+ * Leagues fall into three tiers: close matchups (ordered by score margin), then leagues whose
+ * scores changed recently (most recent first), then the rest. Within a tier, and for leagues whose
+ * current matchup isn't known yet, the original order is preserved.
+ */
+final class LeaguePriority {
+    /** Relative score margin at or below which a matchup is considered close. */
+    @VisibleForTesting
+    static final double CLOSE_MARGIN = 0.1;
+
+    /** How long after a score change a league is considered to have changed recently. */
+    @VisibleForTesting
+    static final long RECENT_CHANGE_SEC = TimeUnit.HOURS.toSeconds(1);
+
+    private LeaguePriority() {}
+
+    /**
+     * Sort the given leagues by priority.
+     *
+     * @param matchups the current matchups, keyed by league key; may be incomplete
+     * @param lastChangeTimesSec the last time each league's scores changed, keyed by league key;
+     *                           may be incomplete
+     * @param currentTimeSec the current time, in seconds since the epoch
+     * @return a sorted copy of leagues
+     */
+    static League[] sort(League[] leagues, final Map<String, Matchup> matchups,
+            final Map<String, Long> lastChangeTimesSec, final long currentTimeSec) {
+        League[] sorted = leagues.clone();
+        // Arrays.sort is stable, which preserves the original order for ties.
+        Arrays.sort(sorted, new Comparator<League>() {
+            @Override
+            public int compare(League lhs, League rhs) {
+                Double lhsMargin = getScoreMargin(matchups.get(lhs.league_key));
+                Double rhsMargin = getScoreMargin(matchups.get(rhs.league_key));
+                Long lhsChange = lastChangeTimesSec.get(lhs.league_key);
+                Long rhsChange = lastChangeTimesSec.get(rhs.league_key);
+                int lhsTier = getTier(lhsMargin, lhsChange, currentTimeSec);
+                int rhsTier = getTier(rhsMargin, rhsChange, currentTimeSec);
+                if (lhsTier != rhsTier) {
+                    return lhsTier < rhsTier ? -1 : 1;
+                }
+                if (lhsTier == 0) {
+                    return Double.compare(lhsMargin, rhsMargin);
+                } else if (lhsTier == 1) {
+                    return -Long.compare(lhsChange, rhsChange);
+                }
+                return 0;
+            }
+        });
+        return sorted;
+    }
+
+    private static int getTier(@Nullable Double scoreMargin, @Nullable Long lastChangeTimeSec,
+            long currentTimeSec) {
+        if (scoreMargin != null && scoreMargin <= CLOSE_MARGIN) {
+            return 0;
+        }
+        if (lastChangeTimeSec != null && currentTimeSec - lastChangeTimeSec <= RECENT_CHANGE_SEC) {
+            return 1;
+        }
+        return 2;
+    }
+
+    /**
+     * Get the difference between the two teams' scores, relative to the larger score, or null if
+     * the scores are unknown. Scores of zero (e.g. before the week starts) are not considered
+     * close.
+     */
+    @VisibleForTesting
+    @Nullable
+    static Double getScoreMargin(@Nullable Matchup matchup) {
+        if (matchup == null || matchup.my_team == null || matchup.opponent_team == null
+                || matchup.my_team.score == null || matchup.opponent_team.score == null) {
+            return null;
+        }
+        double myScore;
+        double oppScore;
+        try {
+            myScore = Double.parseDouble(matchup.my_team.score);
+            oppScore = Double.parseDouble(matchup.opponent_team.score);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        double maxScore = Math.max(Math.abs(myScore), Math.abs(oppScore));
+        if (maxScore == 0) {
+            return null;
+        }
+        return Math.abs(myScore - oppScore) / maxScore;
+    }
+}
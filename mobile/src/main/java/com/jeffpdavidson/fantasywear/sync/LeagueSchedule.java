@@ -0,0 +1,93 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+import com.jeffpdavidson.fantasywear.api.model.Matchup;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Determines when a league is next due to be synced, based on its current matchup's week.
+ *
+ * While the matchup's week is in progress, the league is synced on every periodic sync. Outside of
+ * it (e.g. during a break in the league's schedule), it is synced every
+ * {@link #IDLE_SYNC_INTERVAL_SEC}, or at the start of the week if that comes sooner.
+ */
+final class LeagueSchedule {
+    static final long IDLE_SYNC_INTERVAL_SEC = TimeUnit.HOURS.toSeconds(12);
+
+    /**
+     * Slack to allow on either side of a week's dates, which are in the league's time zone rather
+     * than UTC. This also covers late stat corrections after the last day of the week.
+     */
+    private static final long WEEK_BOUNDARY_SLACK_SEC = TimeUnit.DAYS.toSeconds(1);
+
+    private static final long DAY_SEC = TimeUnit.DAYS.toSeconds(1);
+
+    private LeagueSchedule() {}
+
+    /**
+     * Get the time at which the league with the given matchup is next due to be synced, in seconds
+     * since the epoch. Returns 0 if it is due on every sync.
+     */
+    static long getNextSyncTimeSec(Matchup matchup, long currentTimeSec) {
+        Long weekStartSec = parseDateSec(matchup.week_start);
+        Long weekEndSec = parseDateSec(matchup.week_end);
+        if (weekStartSec == null || weekEndSec == null) {
+            // Without a schedule, play it safe and sync every time.
+            return 0;
+        }
+        long activeStartSec = weekStartSec - WEEK_BOUNDARY_SLACK_SEC;
+        // week_end is the last day of the week, so the week runs through the end of that day.
+        long activeEndSec = weekEndSec + DAY_SEC + WEEK_BOUNDARY_SLACK_SEC;
+        if (currentTimeSec >= activeStartSec && currentTimeSec < activeEndSec) {
+            return 0;
+        }
+        long nextSyncTimeSec = currentTimeSec + IDLE_SYNC_INTERVAL_SEC;
+        if (currentTimeSec < activeStartSec) {
+            nextSyncTimeSec = Math.min(nextSyncTimeSec, activeStartSec);
+        }
+        return nextSyncTimeSec;
+    }
+
+    /**
+     * Whether the week of the given matchup is over, including the slack for late stat corrections,
+     * so that its scores are final. Returns false if the matchup has no schedule.
+     */
+    static boolean isWeekOver(Matchup matchup, long currentTimeSec) {
+        Long weekEndSec = parseDateSec(matchup.week_end);
+        return weekEndSec != null
+                && currentTimeSec >= weekEndSec + DAY_SEC + WEEK_BOUNDARY_SLACK_SEC;
+    }
+
+    /**
+     * Whether the week before that of the given matchup is over, as in {@link #isWeekOver}. Weeks
+     * are assumed not to overlap, so this is the case once the slack after the start of the
+     * matchup's week has passed. Returns false if the matchup has no schedule.
+     */
+    static boolean isPreviousWeekOver(Matchup matchup, long currentTimeSec) {
+        Long weekStartSec = parseDateSec(matchup.week_start);
+        return weekStartSec != null && currentTimeSec >= weekStartSec + WEEK_BOUNDARY_SLACK_SEC;
+    }
+
+    /** Parse a YYYY-MM-DD date as the start of that day in UTC, in seconds since the epoch. */
+    @Nullable
+    private static Long parseDateSec(String date) {
+        if (TextUtils.isEmpty(date)) {
+            return null;
+        }
+        // SimpleDateFormat isn't thread-safe, so create one per call.
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        try {
+            return TimeUnit.MILLISECONDS.toSeconds(format.parse(date).getTime());
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
+import com.jeffpdavidson.fantasywear.api.model.League;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Picks the subset of due leagues to sync on a periodic sync when the number of leagues synced per
+ * sync is limited, so that accounts with very many leagues can be synced in rotating shards.
+ *
+ * Pinned leagues are always synced. The rest of the budget goes to the leagues which were synced
+ * least recently, so successive syncs rotate through every league. Leagues which haven't been
+ * synced for longer than a full rotation should take (see {@link #getMaxStalenessSec}), e.g.
+ * because syncs were delayed, are synced even if that exceeds the budget.
+ */
+final class LeagueShards {
+    private LeagueShards() {}
+
+    /**
+     * Select the leagues to sync.
+     *
+     * @param leagues the due leagues
+     * @param lastSyncTimesSec the time each league was last synced, in seconds since the epoch,
+     *                         keyed by league key; leagues which have never been synced are absent
+     * @param pinnedLeagueKeys the keys of the leagues to sync regardless of the budget
+     * @param budget the number of leagues to sync, or 0 to sync every league
+     * @param syncIntervalSec the interval between periodic syncs
+     * @param currentTimeSec the current time, in seconds since the epoch
+     * @return the selected leagues, in their original order
+     */
+    static League[] select(final League[] leagues, final Map<String, Long> lastSyncTimesSec,
+            Set<String> pinnedLeagueKeys, int budget, int syncIntervalSec, long currentTimeSec) {
+        if (budget <= 0 || leagues.length <= budget) {
+            return leagues;
+        }
+
+        boolean[] selected = new boolean[leagues.length];
+        int numSelected = 0;
+        List<Integer> unpinned = new ArrayList<>();
+        for (int i = 0; i < leagues.length; i++) {
+            if (pinnedLeagueKeys.contains(leagues[i].league_key)) {
+                selected[i] = true;
+                numSelected++;
+            } else {
+                unpinned.add(i);
+            }
+        }
+
+        long maxStalenessSec =
+                getMaxStalenessSec(unpinned.size(), budget - numSelected, syncIntervalSec);
+        Collections.sort(unpinned, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer lhs, Integer rhs) {
+                long lhsTimeSec = getLastSyncTimeSec(lastSyncTimesSec, leagues[lhs]);
+                long rhsTimeSec = getLastSyncTimeSec(lastSyncTimesSec, leagues[rhs]);
+                return lhsTimeSec < rhsTimeSec ? -1 : (lhsTimeSec == rhsTimeSec ? 0 : 1);
+            }
+        });
+        // Least recently synced first, so any stale leagues come before the rest.
+        for (int i : unpinned) {
+            boolean isStale = currentTimeSec - getLastSyncTimeSec(lastSyncTimesSec, leagues[i])
+                    >= maxStalenessSec;
+            if (numSelected >= budget && !isStale) {
+                break;
+            }
+            selected[i] = true;
+            numSelected++;
+        }
+
+        List<League> selectedLeagues = new ArrayList<>(numSelected);
+        for (int i = 0; i < leagues.length; i++) {
+            if (selected[i]) {
+                selectedLeagues.add(leagues[i]);
+            }
+        }
+        return selectedLeagues.toArray(new League[selectedLeagues.size()]);
+    }
+
+    /**
+     * Get how long a league may go without being synced before it is synced regardless of the
+     * budget. This is the time it takes to rotate through every unpinned league, plus one more
+     * sync interval of slack so that a league isn't considered stale just because its turn is
+     * coming up on the next sync.
+     *
+     * @param numUnpinned the number of unpinned due leagues
+     * @param unpinnedBudget the part of the budget left over after the pinned leagues
+     * @param syncIntervalSec the interval between periodic syncs
+     */
+    @VisibleForTesting
+    static long getMaxStalenessSec(int numUnpinned, int unpinnedBudget, int syncIntervalSec) {
+        // If the pinned leagues take up the whole budget, only staleness rotates the rest, one
+        // league per sync.
+        int leaguesPerSync = Math.max(1, unpinnedBudget);
+        long numSyncs = (numUnpinned + leaguesPerSync - 1) / leaguesPerSync;
+        return (numSyncs + 1) * syncIntervalSec;
+    }
+
+    private static long getLastSyncTimeSec(Map<String, Long> lastSyncTimesSec, League league) {
+        Long lastSyncTimeSec = lastSyncTimesSec.get(league.league_key);
+        return lastSyncTimeSec != null ? lastSyncTimeSec : 0;
+    }
+}
@@ -0,0 +1,170 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.accounts.Account;
+import android.accounts.AccountManager;
+import android.app.Notification;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.Context;
+import android.content.Intent;
+import android.os.IBinder;
+import android.support.v4.app.NotificationCompat;
+
+import com.jeffpdavidson.fantasywear.R;
+import com.jeffpdavidson.fantasywear.api.auth.AccountAuthenticator;
+import com.jeffpdavidson.fantasywear.api.model.League;
+import com.jeffpdavidson.fantasywear.log.FWLog;
+import com.jeffpdavidson.fantasywear.storage.LeagueTable;
+import com.jeffpdavidson.fantasywear.util.WearableConnection;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Foreground service which keeps scores up to date during live games, which the user turns on and
+ * off from the main menu.
+ *
+ * While running, the leagues whose current week is in progress are synced every
+ * {@link #POLL_INTERVAL_SEC} via {@link SyncAdapter#syncLeague}, far more often than the sync
+ * adapter framework would reliably schedule syncs. Only leagues which have changed are pushed to
+ * Wear, and the connection to Wear is held for as long as the service runs rather than reconnecting
+ * for every poll. The service stops itself once no league is in an active week, or once no scores
+ * have changed for {@link #MAX_QUIET_SEC}, e.g. because the games are over.
+ */
+public class LiveModeService extends Service {
+    private static final String ACTION_STOP = "com.jeffpdavidson.fantasywear.sync.STOP_LIVE_MODE";
+
+    // Distinct from the authentication error notification.
+    private static final int NOTIFICATION_LIVE_MODE = 2;
+    private static final int REQUEST_OPEN = 0;
+    private static final int REQUEST_STOP = 1;
+
+    private static final long POLL_INTERVAL_SEC = 90;
+
+    /** How long to keep polling without any change before assuming the games are over. */
+    private static final long MAX_QUIET_SEC = TimeUnit.MINUTES.toSeconds(20);
+
+    private static volatile boolean sRunning;
+
+    private ScheduledExecutorService mExecutor;
+    private long mLastChangeTimeSec;
+
+    public static void start(Context context) {
+        context.startService(new Intent(context, LiveModeService.class));
+    }
+
+    public static void stop(Context context) {
+        context.stopService(new Intent(context, LiveModeService.class));
+    }
+
+    /** Whether live mode is currently on. */
+    public static boolean isRunning() {
+        return sRunning;
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        sRunning = true;
+        mLastChangeTimeSec = System.currentTimeMillis() / 1000;
+        // Keep Wear connected between polls. The connection is shared with regular syncs.
+        WearableConnection.getInstance(this).acquire();
+        startForeground(NOTIFICATION_LIVE_MODE, buildNotification());
+        mExecutor = Executors.newSingleThreadScheduledExecutor();
+        mExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    poll();
+                } catch (RuntimeException e) {
+                    // Would otherwise silently cancel every later poll while the service, and
+                    // its notification, stayed up.
+                    FWLog.e(e, "Live mode poll failed, stopping live mode");
+                    stopSelf();
+                }
+            }
+        }, 0, POLL_INTERVAL_SEC, TimeUnit.SECONDS);
+        FWLog.i("Live mode started");
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        if (intent != null && ACTION_STOP.equals(intent.getAction())) {
+            stopSelf();
+        }
+        // Don't restart after being killed; the user can turn live mode on again.
+        return START_NOT_STICKY;
+    }
+
+    @Override
+    public void onDestroy() {
+        // Interrupts any poll in progress. Requests are left alone, since they may be shared with
+        // a regular sync.
+        mExecutor.shutdownNow();
+        WearableConnection.getInstance(this).release();
+        stopForeground(true);
+        sRunning = false;
+        FWLog.i("Live mode stopped");
+        super.onDestroy();
+    }
+
+    @Override
+    public IBinder onBind(Intent intent) {
+        return null;
+    }
+
+    private void poll() {
+        long currentTimeSec = System.currentTimeMillis() / 1000;
+        Account[] accounts = HostElection.getOwnedAccounts(this,
+                AccountManager.get(this).getAccountsByType(
+                        AccountAuthenticator.ACCOUNT_TYPE_YAHOO));
+        SyncAdapter syncAdapter = SyncAdapter.getInstance(this);
+        boolean hasActiveLeagues = false;
+        for (Account account : accounts) {
+            League[] leagues = LeagueTable.getActiveLeagues(this, account, currentTimeSec);
+            if (leagues.length == 0) {
+                continue;
+            }
+            hasActiveLeagues = true;
+            // Failures are tried again on the next poll; repeated failures put leagues into
+            // cooldown.
+            try {
+                if (syncAdapter.syncLeague(account, leagues, false) > 0) {
+                    mLastChangeTimeSec = currentTimeSec;
+                }
+            } catch (InterruptedException e) {
+                // The service is stopping.
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        if (!hasActiveLeagues) {
+            FWLog.i("No leagues are in an active week, stopping live mode");
+            stopSelf();
+        } else if (currentTimeSec - mLastChangeTimeSec >= MAX_QUIET_SEC) {
+            FWLog.i("No scores have changed in %d seconds, stopping live mode", MAX_QUIET_SEC);
+            stopSelf();
+        }
+    }
+
+    private Notification buildNotification() {
+        Intent openIntent = getPackageManager().getLaunchIntentForPackage(getPackageName());
+        Intent stopIntent = new Intent(this, LiveModeService.class).setAction(ACTION_STOP);
+        return new NotificationCompat.Builder(this)
+                .setSmallIcon(android.R.drawable.ic_popup_sync)
+                .setContentTitle(getString(R.string.live_mode))
+                .setContentText(getString(R.string.live_mode_details))
+                .setContentIntent(PendingIntent.getActivity(this, REQUEST_OPEN, openIntent,
+                        PendingIntent.FLAG_UPDATE_CURRENT))
+                .addAction(android.R.drawable.ic_menu_close_clear_cancel, getString(R.string.stop),
+                        PendingIntent.getService(this, REQUEST_STOP, stopIntent,
+                                PendingIntent.FLAG_UPDATE_CURRENT))
+                .setColor(getResources().getColor(R.color.accent))
+                .setCategory(Notification.CATEGORY_SERVICE)
+                .setPriority(Notification.PRIORITY_LOW)
+                .setOngoing(true)
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.accounts.Account;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Process;
+
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.ImageRequest;
+import com.android.volley.toolbox.RequestFuture;
+import com.jeffpdavidson.fantasywear.R;
+import com.jeffpdavidson.fantasywear.api.Volley;
+import com.jeffpdavidson.fantasywear.api.YahooClient;
+import com.jeffpdavidson.fantasywear.api.model.League;
+import com.jeffpdavidson.fantasywear.log.FWLog;
+import com.jeffpdavidson.fantasywear.storage.LogoCache;
+
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warms {@link LogoCache} with the logo of every team in an account's leagues whenever the leagues
+ * are refreshed, so that syncs can push changed matchups without waiting on image downloads.
+ *
+ * Prefetches run one at a time on a background-priority thread, fetching one logo at a time, so
+ * they stay out of the way of syncs. Logos which are already cached, e.g. because another league
+ * or account shares them, are skipped. Failures are only logged; a logo which couldn't be
+ * prefetched is fetched by the sync which needs it. Each prefetch also prunes logos which are no
+ * longer in use from the cache; checking for cached logos marks the current ones as used.
+ */
+final class LogoPrefetcher {
+    private static final long LOGO_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final ExecutorService sExecutor = Executors.newSingleThreadExecutor();
+
+    private LogoPrefetcher() {}
+
+    /** Start prefetching the logos of every team in the given leagues. */
+    static void prefetch(Context context, final Account account, final League[] leagues) {
+        if (leagues.length == 0) {
+            return;
+        }
+        final Context appContext = context.getApplicationContext();
+        sExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                try {
+                    prefetchLogos(appContext, account, leagues);
+                } catch (VolleyError e) {
+                    FWLog.w("Unable to prefetch logos for %s: %s", account.name, e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                LogoCache.prune(appContext);
+            }
+        });
+    }
+
+    private static void prefetchLogos(Context context, Account account, League[] leagues)
+            throws VolleyError, InterruptedException {
+        Set<String> logoUrls = YahooClient.blockingGetTeamLogoUrls(
+                context, LogoPrefetcher.class, account, leagues);
+        int logoSize = context.getResources().getDimensionPixelSize(R.dimen.logo_size);
+        int numFetched = 0;
+        for (String logoUrl : logoUrls) {
+            if (LogoCache.contains(context, logoUrl)) {
+                continue;
+            }
+            RequestFuture<Bitmap> future = RequestFuture.newFuture();
+            ImageRequest request = new ImageRequest(logoUrl, future, logoSize, logoSize,
+                    Bitmap.Config.ARGB_8888, future);
+            request.setTag(LogoPrefetcher.class);
+            Volley.getInstance(context).getImageRequestQueue().add(request);
+            try {
+                Bitmap logo = future.get(LOGO_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                LogoCache.put(context, logoUrl, SyncAdapter.encodeLogo(logo, logoSize));
+                numFetched++;
+            } catch (ExecutionException | TimeoutException e) {
+                request.cancel();
+                FWLog.w("Unable to prefetch logo %s: %s", logoUrl, e);
+            }
+        }
+        FWLog.d("Prefetched %d of %d team logos for %s", numFetched, logoUrls.size(),
+                account.name);
+    }
+}
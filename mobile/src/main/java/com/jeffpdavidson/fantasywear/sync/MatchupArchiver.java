@@ -0,0 +1,93 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.accounts.Account;
+import android.content.Context;
+import android.os.Process;
+import android.support.annotation.Nullable;
+
+import com.android.volley.ParseError;
+import com.android.volley.VolleyError;
+import com.jeffpdavidson.fantasywear.api.YahooClient;
+import com.jeffpdavidson.fantasywear.api.model.League;
+import com.jeffpdavidson.fantasywear.api.model.Matchup;
+import com.jeffpdavidson.fantasywear.log.FWLog;
+import com.jeffpdavidson.fantasywear.storage.LeagueTable;
+import com.jeffpdavidson.fantasywear.storage.MatchupArchiveTable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills {@link MatchupArchiveTable} with the final matchups of completed weeks, given each
+ * league's current matchup as it is synced.
+ *
+ * A league's current week is archived once it is over, which only happens at the end of the
+ * season, since the current week moves on before the previous one is over otherwise; the league
+ * is then marked as finished (see {@link LeagueTable#setFinished}) so that regular syncs stop
+ * fetching it. The previous week, which is over once the current one has started, is fetched and
+ * archived unless it already is. If that week has no matchup, e.g. because it was a bye, it is
+ * recorded as unavailable so that it isn't fetched again.
+ *
+ * Archiving runs one league at a time on a background-priority thread, off of the sync's critical
+ * path, with its own timeout. Failures are only logged; the week is tried again on the next sync.
+ */
+final class MatchupArchiver {
+    private static final long MATCHUP_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final ExecutorService sExecutor = Executors.newSingleThreadExecutor();
+
+    private MatchupArchiver() {}
+
+    /**
+     * Start archiving the completed weeks of a league, given its current matchup. Does nothing if
+     * the matchup, or its week, isn't known.
+     */
+    static void archive(Context context, final Account account, final League league,
+            @Nullable final Matchup matchup) {
+        if (matchup == null || matchup.week == null) {
+            return;
+        }
+        final Context appContext = context.getApplicationContext();
+        sExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                try {
+                    archiveCompletedWeeks(appContext, account, league, matchup);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+    }
+
+    private static void archiveCompletedWeeks(Context context, Account account, League league,
+            Matchup matchup) throws InterruptedException {
+        long currentTimeSec = System.currentTimeMillis() / 1000;
+        boolean isFinished = LeagueSchedule.isWeekOver(matchup, currentTimeSec);
+        if (isFinished) {
+            MatchupArchiveTable.archiveMatchup(context, account, league, matchup);
+        }
+        LeagueTable.setFinished(context, account, league, isFinished);
+
+        int previousWeek = matchup.week - 1;
+        if (previousWeek < 1
+                || !LeagueSchedule.isPreviousWeekOver(matchup, currentTimeSec)
+                || MatchupArchiveTable.isArchived(context, account, league, previousWeek)) {
+            return;
+        }
+        try {
+            Matchup previousMatchup = YahooClient.blockingGetMatchup(context,
+                    MatchupArchiver.class, account, league, previousWeek, MATCHUP_TIMEOUT_MS);
+            MatchupArchiveTable.archiveMatchup(context, account, league, previousMatchup);
+            FWLog.d("Archived week %d of %s", previousWeek, league);
+        } catch (ParseError e) {
+            // The week has no matchup to archive, and never will.
+            FWLog.w("No matchup in week %d of %s: %s", previousWeek, league, e);
+            MatchupArchiveTable.archiveUnavailable(context, account, league, previousWeek);
+        } catch (VolleyError e) {
+            FWLog.w("Unable to archive week %d of %s: %s", previousWeek, league, e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.accounts.Account;
+import android.accounts.AccountManager;
+import android.app.IntentService;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.support.annotation.Nullable;
+
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.wearable.Asset;
+import com.jeffpdavidson.fantasywear.api.auth.AccountAuthenticator;
+import com.jeffpdavidson.fantasywear.api.model.League;
+import com.jeffpdavidson.fantasywear.log.FWLog;
+import com.jeffpdavidson.fantasywear.protocol.LeagueData;
+import com.jeffpdavidson.fantasywear.storage.LeagueTable;
+import com.jeffpdavidson.fantasywear.storage.LogoCache;
+import com.jeffpdavidson.fantasywear.util.WearableConnection;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service which pushes every league's last-known data to Wear again from the local cache, e.g.
+ * when the wear device reboots or the app is upgraded there, which clears its notifications.
+ *
+ * Each league's matchup and logos are pushed as they were last pushed, without touching the
+ * network. If any league's data is older than {@link #MAX_REPLAY_AGE_SEC}, a regular sync follows
+ * to bring it up to date. If any league isn't cached at all, a manual sync follows instead, to
+ * refresh and push every league.
+ *
+ * The service can also refresh a single league, given its league URI (see
+ * {@link LeagueData#getLeagueUri}) as the Intent data. The cached data is replayed if it is no
+ * older than {@link #MAX_REFRESH_AGE_SEC}; otherwise, just that league is synced.
+ */
+public class ReplayService extends IntentService {
+    private static final String TAG = "ReplayService";
+
+    /** Maximum age of replayed data before a sync is requested to refresh it. */
+    private static final long MAX_REPLAY_AGE_SEC = TimeUnit.MINUTES.toSeconds(10);
+
+    /**
+     * Maximum age of cached data which is replayed when refreshing a single league. This is much
+     * shorter than {@link #MAX_REPLAY_AGE_SEC}, since the user is explicitly asking for new data,
+     * but still absorbs repeated requests.
+     */
+    private static final long MAX_REFRESH_AGE_SEC = TimeUnit.MINUTES.toSeconds(1);
+
+    public static void start(Context context) {
+        context.startService(new Intent(context, ReplayService.class));
+    }
+
+    /** Refresh a single league, given its league URI. */
+    public static void startForLeague(Context context, Uri leagueUri) {
+        context.startService(new Intent(context, ReplayService.class).setData(leagueUri));
+    }
+
+    public ReplayService() {
+        super(TAG);
+        setIntentRedelivery(true);
+    }
+
+    @Override
+    protected void onHandleIntent(Intent intent) {
+        if (intent.getData() != null) {
+            refreshLeague(intent.getData());
+        } else {
+            replayAllLeagues();
+        }
+    }
+
+    private void replayAllLeagues() {
+        // Only replay the accounts that this device pushes; see HostElection.
+        Account[] accounts = HostElection.getOwnedAccounts(this,
+                AccountManager.get(this).getAccountsByType(
+                        AccountAuthenticator.ACCOUNT_TYPE_YAHOO));
+        WearableConnection wearableConnection = WearableConnection.getInstance(this);
+        GoogleApiClient googleApiClient;
+        try {
+            googleApiClient = wearableConnection.blockingAcquire();
+        } catch (IOException e) {
+            FWLog.e(e, "Unable to connect to wear, falling back to a manual sync");
+            SyncAdapter.requestManualSync(this);
+            return;
+        }
+
+        boolean isComplete = true;
+        boolean isStale = false;
+        int numReplayed = 0;
+        long minSyncTimeSec = System.currentTimeMillis() / 1000 - MAX_REPLAY_AGE_SEC;
+        try {
+            for (Account account : accounts) {
+                Map<String, LeagueTable.PushedMatchup> pushedMatchups =
+                        LeagueTable.getPushedMatchups(this, account);
+                for (League league : LeagueTable.getLeagues(this, account)) {
+                    LeagueTable.PushedMatchup pushed = pushedMatchups.get(league.league_key);
+                    if (!replayLeague(googleApiClient, account, league, pushed)) {
+                        isComplete = false;
+                        continue;
+                    }
+                    numReplayed++;
+                    isStale |= pushed.lastSyncTimeSec < minSyncTimeSec;
+                }
+            }
+        } catch (IOException e) {
+            FWLog.e(e, "Failed to replay league data");
+            isComplete = false;
+        } finally {
+            wearableConnection.release();
+        }
+        FWLog.i("Replayed %d leagues from the cache", numReplayed);
+
+        if (!isComplete) {
+            FWLog.i("Cache is incomplete, requesting a manual sync");
+            SyncAdapter.requestManualSync(this);
+        } else if (isStale) {
+            FWLog.i("Cached data is stale, requesting a sync");
+            SyncAdapter.requestSync(this);
+        }
+    }
+
+    private void refreshLeague(Uri leagueUri) {
+        String accountName = LeagueData.getAccountName(leagueUri);
+        String leagueKey = LeagueData.getLeagueKey(leagueUri);
+        Account account = null;
+        League league = null;
+        for (Account candidate : AccountManager.get(this).getAccountsByType(
+                AccountAuthenticator.ACCOUNT_TYPE_YAHOO)) {
+            if (candidate.name.equals(accountName)) {
+                account = candidate;
+            }
+        }
+        if (account != null) {
+            for (League candidate : LeagueTable.getLeagues(this, account)) {
+                if (candidate.league_key.equals(leagueKey)) {
+                    league = candidate;
+                }
+            }
+        }
+        if (league == null) {
+            FWLog.w("Ignoring refresh request for unknown league %s", leagueUri);
+            return;
+        }
+        // Another device may be pushing this account instead; see HostElection.
+        if (HostElection.getOwnedAccounts(this, new Account[] { account }).length == 0) {
+            FWLog.i("Ignoring refresh request for %s, which another device pushes", league);
+            return;
+        }
+
+        LeagueTable.PushedMatchup pushed =
+                LeagueTable.getPushedMatchups(this, account).get(league.league_key);
+        if (pushed != null && pushed.lastSyncTimeSec
+                >= System.currentTimeMillis() / 1000 - MAX_REFRESH_AGE_SEC) {
+            WearableConnection wearableConnection = WearableConnection.getInstance(this);
+            try {
+                GoogleApiClient googleApiClient = wearableConnection.blockingAcquire();
+                try {
+                    if (replayLeague(googleApiClient, account, league, pushed)) {
+                        FWLog.i("Refreshed %s from the cache", league);
+                        return;
+                    }
+                } finally {
+                    wearableConnection.release();
+                }
+            } catch (IOException e) {
+                FWLog.e(e, "Failed to replay %s, syncing it instead", league);
+            }
+        }
+
+        FWLog.i("Syncing %s on request from the wear device", league);
+        try {
+            // Queued behind any running sync, rather than racing it to push the league.
+            SyncAdapter.getInstance(this).syncLeague(account, league, true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            FWLog.e("Interrupted while syncing %s", league);
+        }
+    }
+
+    /**
+     * Push a league's cached data to Wear.
+     *
+     * @return whether the league was pushed; false if its data isn't fully cached
+     */
+    private boolean replayLeague(GoogleApiClient googleApiClient, Account account, League league,
+            @Nullable LeagueTable.PushedMatchup pushed) throws IOException {
+        byte[] logo = pushed == null ? null
+                : LogoCache.get(this, pushed.matchup.my_team.logo_url);
+        byte[] oppLogo = pushed == null ? null
+                : LogoCache.get(this, pushed.matchup.opponent_team.logo_url);
+        if (logo == null || oppLogo == null) {
+            FWLog.d("No cached data for %s, cannot replay", league);
+            return false;
+        }
+        SyncAdapter.sendUpdateToWear(googleApiClient, account, league, pushed.matchup,
+                Asset.createFromBytes(logo), Asset.createFromBytes(oppLogo), true);
+        return true;
+    }
+}
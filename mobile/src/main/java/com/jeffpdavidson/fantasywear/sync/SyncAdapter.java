@@ -4,21 +4,22 @@ import android.accounts.Account;
 import android.accounts.AccountManager;
 import android.app.Service;
 import android.content.AbstractThreadedSyncAdapter;
-import android.content.BroadcastReceiver;
 import android.content.ContentProviderClient;
 import android.content.ContentResolver;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.SyncResult;
+import android.content.SyncStats;
 import android.graphics.Bitmap;
 import android.os.Bundle;
 import android.os.IBinder;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
-import android.support.v4.content.LocalBroadcastManager;
+import android.support.annotation.Nullable;
 
 import com.android.volley.AuthFailureError;
 import com.android.volley.ParseError;
+import com.android.volley.TimeoutError;
 import com.android.volley.VolleyError;
 import com.android.volley.toolbox.ImageRequest;
 import com.android.volley.toolbox.RequestFuture;
@@ -29,24 +30,37 @@ import com.google.android.gms.wearable.PutDataRequest;
 import com.google.android.gms.wearable.Wearable;
 import com.jeffpdavidson.fantasywear.R;
 import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
+import com.jeffpdavidson.fantasywear.api.CountingHurlStack;
 import com.jeffpdavidson.fantasywear.api.Volley;
 import com.jeffpdavidson.fantasywear.api.YahooClient;
 import com.jeffpdavidson.fantasywear.api.auth.AccountAuthenticator;
 import com.jeffpdavidson.fantasywear.api.model.League;
 import com.jeffpdavidson.fantasywear.api.model.Matchup;
+import com.jeffpdavidson.fantasywear.api.parser.ScoreboardParser.MultiLeagueScoreboard;
 import com.jeffpdavidson.fantasywear.log.FWLog;
 import com.jeffpdavidson.fantasywear.protocol.LeagueData;
 import com.jeffpdavidson.fantasywear.storage.LeagueTable;
+import com.jeffpdavidson.fantasywear.storage.LogoCache;
 import com.jeffpdavidson.fantasywear.storage.Preferences;
+import com.jeffpdavidson.fantasywear.storage.SyncJournalTable;
 import com.jeffpdavidson.fantasywear.storage.TokenTable;
 import com.jeffpdavidson.fantasywear.util.Constants;
-import com.jeffpdavidson.fantasywear.util.LocalBroadcasts;
+import com.jeffpdavidson.fantasywear.util.WearableConnection;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.concurrent.CountDownLatch;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Sync adapter for FantasyWear data.
@@ -56,189 +70,879 @@ import java.util.concurrent.TimeUnit;
  */
 public class SyncAdapter extends AbstractThreadedSyncAdapter {
     private static final int LEAGUE_REFRESH_PERIOD_SEC = 24 * 60 * 60; // 1 day
-    private static final int INITIAL_SYNC_TRIES = 10;
-    private static final int INITIAL_SYNC_PERIOD_MS = 10000;
+    /** How long to wait for the wear device to acknowledge all leagues on an initial sync. */
+    private static final int INITIAL_SYNC_TIMEOUT_MS = 100000;
+    /** How often to probe leagues which haven't been acknowledged yet on an initial sync. */
+    private static final int INITIAL_SYNC_PROBE_PERIOD_MS = 10000;
+
+    /**
+     * Maximum age of an interrupted sync which will be resumed. Older ones are abandoned, and the
+     * next sync picks leagues as usual.
+     */
+    private static final long MAX_RESUME_AGE_SEC = TimeUnit.HOURS.toSeconds(1);
+
+    /** Shortest period the framework allows for periodic syncs, as of API 24. */
+    private static final int MIN_FRAMEWORK_PERIODIC_SYNC_INTERVAL_SEC =
+            (int) TimeUnit.MINUTES.toSeconds(15);
+
+    /**
+     * Time allowed for fetching and preparing leagues in a single sync. Leagues which aren't
+     * reached in time are deferred to the next sync.
+     */
+    private static final long SYNC_DEADLINE_MS = TimeUnit.MINUTES.toMillis(2);
+
+    /**
+     * Maximum number of leagues to prepare (i.e. fetch and encode logos for) in parallel, across
+     * all accounts.
+     *
+     * Each league has at most two Volley requests in flight at once (the team logos), so this also
+     * caps the number of in-flight logo requests at twice this value, which keeps us within
+     * Volley's default pool of four network dispatchers. Set to 1 to prepare leagues sequentially.
+     */
+    private static final int LEAGUE_SYNC_PARALLELISM = 2;
+
+    /**
+     * Maximum number of prepared leagues waiting to be pushed to Wear, per sync. Bounds the memory
+     * held by encoded logos when pushing falls behind.
+     */
+    private static final int MAX_PREPARED_LEAGUES = 4;
+
+    /** Executor for preparing leagues. Shared so that parallel account syncs respect the cap. */
+    private static final ExecutorService sLeaguePrepareExecutor =
+            Executors.newFixedThreadPool(LEAGUE_SYNC_PARALLELISM);
+
+    /**
+     * Executor for pushing leagues to Wear. Each running sync uses one thread, so that a slow
+     * fetch for one account doesn't hold up pushes for another.
+     */
+    private static final ExecutorService sLeaguePushExecutor = Executors.newCachedThreadPool();
+
+    /**
+     * Executor for syncing accounts within a session. Each account uses one thread, so that the
+     * accounts' scoreboard fetches and pushes overlap.
+     */
+    private static final ExecutorService sAccountSyncExecutor = Executors.newCachedThreadPool();
+
+    /** Coalesces overlapping sync requests into a single running session. */
+    private static final SyncCoordinator sSyncCoordinator = new SyncCoordinator();
+
+    private static volatile SyncAdapter sInstance;
+
+    /** Get the process-wide sync adapter, which is also the one bound by {@link SyncService}. */
+    public static SyncAdapter getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (SyncAdapter.class) {
+                if (sInstance == null) {
+                    sInstance = new SyncAdapter(context.getApplicationContext());
+                }
+            }
+        }
+        return sInstance;
+    }
 
     /** Request an expedited manual sync of all the accounts on the system. */
     public static void requestManualSync(Context context) {
+        if (Preferences.getUseJobScheduler(context)) {
+            SyncJobService.requestSync(context, true);
+            return;
+        }
+        Account sessionAccount = getSessionAccount(context);
+        if (sessionAccount == null) {
+            return;
+        }
         Bundle settings = new Bundle();
         settings.putBoolean(ContentResolver.SYNC_EXTRAS_MANUAL, true);
         settings.putBoolean(ContentResolver.SYNC_EXTRAS_EXPEDITED, true);
-        for (Account account : AccountManager.get(context).getAccountsByType(
-                AccountAuthenticator.ACCOUNT_TYPE_YAHOO)) {
-            ContentResolver.requestSync(account, SyncProvider.AUTHORITY, settings);
+        ContentResolver.requestSync(sessionAccount, SyncProvider.AUTHORITY, settings);
+    }
+
+    /**
+     * Request an expedited sync of all the accounts on the system which, unlike a manual sync, only
+     * pushes leagues that are due and have changed.
+     */
+    public static void requestSync(Context context) {
+        if (Preferences.getUseJobScheduler(context)) {
+            SyncJobService.requestSync(context, false);
+            return;
         }
+        Account sessionAccount = getSessionAccount(context);
+        if (sessionAccount == null) {
+            return;
+        }
+        Bundle settings = new Bundle();
+        settings.putBoolean(ContentResolver.SYNC_EXTRAS_EXPEDITED, true);
+        ContentResolver.requestSync(sessionAccount, SyncProvider.AUTHORITY, settings);
     }
 
-    /** Set the interval for periodic syncs for all accounts. */
+    /**
+     * Set the interval for periodic syncs of all accounts.
+     *
+     * The periodic sync is registered for every account, so that syncs continue as long as the
+     * user has left automatic sync on for any of them. Since each sync covers all accounts, the
+     * resulting per-account syncs are collapsed into a single session; see
+     * {@link SyncCoordinator#startOrAttachPeriodic}. If the user has chosen to schedule syncs with
+     * JobScheduler instead, it is removed from every account and a {@link SyncJobService} job is
+     * scheduled; otherwise, any such job is canceled.
+     *
+     * Since API 24, the framework raises the period of periodic syncs to at least
+     * {@link #MIN_FRAMEWORK_PERIODIC_SYNC_INTERVAL_SEC}. A shorter interval, e.g. the adaptive
+     * interval right after a score change (see {@link AdaptiveSyncInterval}), is covered by a
+     * one-off follow-up job instead (see {@link SyncJobService#scheduleFollowUpSync}), as long as
+     * the user hasn't turned off automatic sync altogether.
+     */
     public static void setPeriodicSyncIntervalSec(Context context, int intervalSec) {
         AccountManager am = AccountManager.get(context);
-        for (Account account : am.getAccountsByType(AccountAuthenticator.ACCOUNT_TYPE_YAHOO)) {
-            setPeriodicSyncIntervalSec(account, intervalSec);
+        Account[] accounts = am.getAccountsByType(AccountAuthenticator.ACCOUNT_TYPE_YAHOO);
+        boolean useJobScheduler = Preferences.getUseJobScheduler(context);
+        if (useJobScheduler && accounts.length > 0) {
+            SyncJobService.schedulePeriodicSync(context, intervalSec);
+        } else {
+            SyncJobService.cancelAll(context);
+        }
+        if (!useJobScheduler && accounts.length > 0
+                && intervalSec < MIN_FRAMEWORK_PERIODIC_SYNC_INTERVAL_SEC
+                && ContentResolver.getMasterSyncAutomatically()) {
+            SyncJobService.scheduleFollowUpSync(context, intervalSec);
+        } else {
+            SyncJobService.cancelFollowUpSync(context);
+        }
+        for (Account account : accounts) {
+            if (!useJobScheduler) {
+                ContentResolver.addPeriodicSync(account, SyncProvider.AUTHORITY, new Bundle(),
+                        Math.max(intervalSec, MIN_FRAMEWORK_PERIODIC_SYNC_INTERVAL_SEC));
+            } else {
+                ContentResolver.removePeriodicSync(account, SyncProvider.AUTHORITY, new Bundle());
+            }
         }
     }
 
-    private static void setPeriodicSyncIntervalSec(Account account, int intervalSec) {
-        ContentResolver.addPeriodicSync(account, SyncProvider.AUTHORITY, new Bundle(), intervalSec);
+    /**
+     * Get the account which requested syncs are scheduled for, or null if there are no accounts.
+     * This is the account with the lowest name among those which the user has left automatic sync
+     * on for, since the framework drops non-manual syncs for the others, or the account with the
+     * lowest name overall if automatic sync is off for all of them.
+     */
+    @Nullable
+    private static Account getSessionAccount(Context context) {
+        Account sessionAccount = null;
+        boolean sessionAccountSyncsAutomatically = false;
+        for (Account account : AccountManager.get(context).getAccountsByType(
+                AccountAuthenticator.ACCOUNT_TYPE_YAHOO)) {
+            boolean syncsAutomatically =
+                    ContentResolver.getSyncAutomatically(account, SyncProvider.AUTHORITY);
+            if (sessionAccount == null
+                    || (syncsAutomatically && !sessionAccountSyncsAutomatically)
+                    || (syncsAutomatically == sessionAccountSyncsAutomatically
+                            && account.name.compareTo(sessionAccount.name) < 0)) {
+                sessionAccount = account;
+                sessionAccountSyncsAutomatically = syncsAutomatically;
+            }
+        }
+        return sessionAccount;
     }
 
-    SyncAdapter(Context context) {
+    private SyncAdapter(Context context) {
         super(context, true, true);
     }
 
+    /**
+     * Perform a sync session, which covers every account regardless of which account the sync was
+     * requested for; see {@link #performSync}.
+     *
+     * Syncs which are neither manual nor expedited are the periodic syncs registered for each
+     * account, which are collapsed into one session; see
+     * {@link SyncCoordinator#startOrAttachPeriodic}.
+     */
     @Override
     public void onPerformSync(Account account, Bundle extras, String authority,
             ContentProviderClient provider, SyncResult syncResult) {
-        FWLog.d("Performing FantasyWear sync");
         boolean isManualSync = extras.getBoolean(ContentResolver.SYNC_EXTRAS_MANUAL);
+        if (!isManualSync && !extras.getBoolean(ContentResolver.SYNC_EXTRAS_EXPEDITED)) {
+            performSync(sSyncCoordinator.startOrAttachPeriodic(), syncResult);
+        } else {
+            performSync(isManualSync, syncResult);
+        }
+    }
+
+    /**
+     * Perform a sync session, which covers every account. This is the entry point for both the
+     * sync adapter framework and {@link SyncJobService}.
+     *
+     * Requests which arrive while a session is running attach to it via {@link SyncCoordinator}
+     * rather than starting another. If a manual sync attaches to a session which isn't forced, a
+     * forced session runs as soon as it finishes, so that the leagues are still refreshed and
+     * pushed as the user asked.
+     */
+    void performSync(boolean isManualSync, SyncResult syncResult) {
+        performSync(sSyncCoordinator.startOrAttach(isManualSync), syncResult);
+    }
+
+    /**
+     * Run a session started by {@link SyncCoordinator}.
+     *
+     * @param session the session to run, or null if the request was attached to another session
+     */
+    private void performSync(@Nullable SyncCoordinator.Session session, SyncResult syncResult) {
+        if (session == null) {
+            FWLog.d("Sync request was collapsed into another session");
+            return;
+        }
+        FWLog.d("Performing FantasyWear sync");
+        CountingHurlStack httpStack = Volley.getInstance(getContext()).getHttpStack();
+        CountingHurlStack.Stats startStats = httpStack.getStats();
         try {
-            onPerformSync(account, isManualSync, syncResult);
+            runSessions(session, syncResult);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             FWLog.e("Interrupted while getting league information");
-        } catch (ParseError e) {
+        }
+        // Includes requests made by anything else running alongside the sync.
+        logConnectionStats(httpStack.getStats().since(startStats));
+        FWLog.i("Sync complete");
+    }
+
+    private static void logConnectionStats(CountingHurlStack.Stats stats) {
+        for (Map.Entry<String, Integer> entry : stats.requests.entrySet()) {
+            String origin = entry.getKey();
+            int numReused = stats.getConnectionsReused(origin);
+            if (numReused < 0) {
+                FWLog.d("Sync made %d requests to %s", entry.getValue(), origin);
+            } else {
+                FWLog.d("Sync made %d requests to %s, reusing a connection for %d",
+                        entry.getValue(), origin, numReused);
+            }
+        }
+    }
+
+    /**
+     * Run a session, followed by any sessions for requests which were queued while it ran; see
+     * {@link SyncCoordinator#finish}.
+     */
+    private void runSessions(SyncCoordinator.Session session, SyncResult syncResult)
+            throws InterruptedException {
+        try {
+            while (session != null) {
+                if (session.getLeagues() == null) {
+                    performSyncSession(session, syncResult);
+                } else {
+                    performLeagueSession(session, syncResult);
+                }
+                session = sSyncCoordinator.finish(session);
+                if (session != null) {
+                    FWLog.d("Sync requested during the session, starting another");
+                }
+            }
+        } finally {
+            if (session != null) {
+                sSyncCoordinator.abandon(session);
+            }
+        }
+    }
+
+    /**
+     * Sync a single league right away, e.g. when the user asks to refresh it from the wear device.
+     *
+     * This goes through the same steps as a league in a regular sync, so a failure to sync the
+     * league puts it into cooldown per {@link LeagueBackoff}, and a league which is already cooling
+     * down is still synced. If another sync is running, the league is queued to be synced once it
+     * finishes instead; see {@link SyncCoordinator#startOrAttachLeagues}.
+     *
+     * @param forceUpdate whether to push the league to Wear even if it hasn't changed
+     * @return whether the league was pushed to Wear; false if it failed or was queued
+     */
+    public boolean syncLeague(Account account, League league, boolean forceUpdate)
+            throws InterruptedException {
+        return syncLeague(account, new League[] { league }, forceUpdate) > 0;
+    }
+
+    /**
+     * Sync several of an account's leagues right away, as in {@link #syncLeague}. Their
+     * scoreboards are fetched together.
+     *
+     * @return the number of leagues pushed to Wear, including by any queued syncs which ran
+     *         afterwards, or 0 if the leagues were queued
+     */
+    public int syncLeague(Account account, League[] leagues, boolean forceUpdate)
+            throws InterruptedException {
+        SyncCoordinator.Session session =
+                sSyncCoordinator.startOrAttachLeagues(account, leagues, forceUpdate);
+        if (session == null) {
+            FWLog.d("Another sync is running, queued %d leagues", leagues.length);
+            return 0;
+        }
+        SyncResult syncResult = new SyncResult();
+        runSessions(session, syncResult);
+        FWLog.d("Synced %d leagues: %s", leagues.length, syncResult.stats);
+        return (int) syncResult.stats.numUpdates;
+    }
+
+    /**
+     * Run a session which syncs just a few leagues, recording any failure in the given result.
+     * Unlike a regular sync, this doesn't refresh the list of leagues or reschedule the periodic
+     * sync.
+     */
+    private void performLeagueSession(SyncCoordinator.Session session, SyncResult syncResult)
+            throws InterruptedException {
+        WearableConnection wearableConnection = WearableConnection.getInstance(getContext());
+        GoogleApiClient googleApiClient;
+        try {
+            googleApiClient = wearableConnection.blockingAcquire();
+        } catch (IOException e) {
+            recordSyncError(e, syncResult);
+            return;
+        }
+        try {
+            for (Map.Entry<Account, List<League>> entry : session.getLeagues().entrySet()) {
+                List<League> leagues = entry.getValue();
+                try {
+                    syncLeagues(googleApiClient, entry.getKey(),
+                            leagues.toArray(new League[leagues.size()]), false, false, session,
+                            syncResult);
+                } catch (IOException | VolleyError e) {
+                    recordSyncError(e, syncResult);
+                }
+            }
+        } finally {
+            wearableConnection.release();
+        }
+    }
+
+    @Override
+    public void onSyncCanceled(@NonNull Thread thread) {
+        super.onSyncCanceled(thread);
+        cancelRequests();
+    }
+
+    /** Cancel the in-flight network requests of any running sync. */
+    void cancelRequests() {
+        Volley.getInstance(getContext()).cancelAll(SyncAdapter.class);
+    }
+
+    /**
+     * Sync all accounts in parallel, sharing the Wear connection, Volley queue and logo cache.
+     *
+     * If the user has limited the number of leagues synced per sync, the budget is split evenly
+     * between the accounts; see {@link LeagueShards}.
+     *
+     * A failure in one account, even an unexpected one, doesn't affect the others; it is recorded
+     * in the result so that the sync is retried. Once all accounts are done, the last sync time of
+     * every account which synced successfully is updated in a single transaction, and the next
+     * periodic sync is scheduled for the soonest interval any account needs.
+     */
+    private void performSyncSession(final SyncCoordinator.Session session, SyncResult syncResult)
+            throws InterruptedException {
+        // Accounts which are also on another device connected to the wear device may be synced
+        // there instead; see HostElection.
+        Account[] accounts = HostElection.getOwnedAccounts(getContext(),
+                AccountManager.get(getContext()).getAccountsByType(
+                        AccountAuthenticator.ACCOUNT_TYPE_YAHOO));
+        if (!session.isForced()) {
+            accounts = getAutomaticallySyncedAccounts(accounts);
+        }
+        List<Future<Integer>> futures = new ArrayList<>(accounts.length);
+        List<SyncResult> accountResults = new ArrayList<>(accounts.length);
+        int leagueBudget = Preferences.getSyncLeagueBudget(getContext());
+        final int accountLeagueBudget = leagueBudget > 0 && accounts.length > 0
+                ? (leagueBudget + accounts.length - 1) / accounts.length : 0;
+        try {
+            for (final Account account : accounts) {
+                // SyncResult isn't thread-safe, so give each account its own.
+                final SyncResult accountResult = new SyncResult();
+                accountResults.add(accountResult);
+                futures.add(sAccountSyncExecutor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        return syncAccount(
+                                account, session, accountLeagueBudget, accountResult);
+                    }
+                }));
+            }
+
+            List<Account> syncedAccounts = new ArrayList<>(accounts.length);
+            int syncIntervalSec = Integer.MAX_VALUE;
+            for (int i = 0; i < accounts.length; i++) {
+                Integer accountSyncIntervalSec;
+                try {
+                    accountSyncIntervalSec = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof InterruptedException) {
+                        throw (InterruptedException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    // syncAccount handles expected failures, so this is a bug, but it shouldn't
+                    // stop the other accounts.
+                    FWLog.e(cause, "Unexpected failure syncing %s", accounts[i].name);
+                    accountResults.get(i).stats.numIoExceptions++;
+                    accountSyncIntervalSec = null;
+                }
+                addStats(syncResult.stats, accountResults.get(i).stats);
+                if (accountSyncIntervalSec != null) {
+                    syncedAccounts.add(accounts[i]);
+                    syncIntervalSec = Math.min(syncIntervalSec, accountSyncIntervalSec);
+                }
+            }
+
+            if (!syncedAccounts.isEmpty()) {
+                TokenTable.setLastSyncTimeSec(
+                        getContext(), syncedAccounts, System.currentTimeMillis() / 1000);
+                FWLog.d("Next sync in %d seconds", syncIntervalSec);
+                setPeriodicSyncIntervalSec(getContext(), syncIntervalSec);
+            }
+        } finally {
+            // No-op for completed accounts; stops the rest if we were interrupted.
+            for (Future<Integer> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Get the accounts which the user has left automatic sync on for. A session covers every
+     * account, but one which wasn't requested manually shouldn't sync the accounts for which the
+     * user turned automatic sync off.
+     */
+    private static Account[] getAutomaticallySyncedAccounts(Account[] accounts) {
+        List<Account> syncedAccounts = new ArrayList<>(accounts.length);
+        for (Account account : accounts) {
+            if (ContentResolver.getSyncAutomatically(account, SyncProvider.AUTHORITY)) {
+                syncedAccounts.add(account);
+            } else {
+                FWLog.d("Automatic sync is off for %s, skipping", account.name);
+            }
+        }
+        return syncedAccounts.toArray(new Account[syncedAccounts.size()]);
+    }
+
+    /**
+     * Sync a single account, recording any failure in the given result.
+     *
+     * @return the periodic sync interval the account needs, or null if the sync failed
+     */
+    @Nullable
+    private Integer syncAccount(Account account, SyncCoordinator.Session session,
+            int leagueBudget, SyncResult syncResult) throws InterruptedException {
+        try {
+            return onPerformSync(account, session, leagueBudget, syncResult);
+        } catch (IOException | VolleyError e) {
+            recordSyncError(e, syncResult);
+        }
+        return null;
+    }
+
+    private static void recordSyncError(Exception e, SyncResult syncResult) {
+        if (e instanceof ParseError) {
             FWLog.e(e, "Parse error while getting league information");
             syncResult.stats.numParseExceptions++;
-        } catch (AuthFailureError e) {
+        } else if (e instanceof AuthFailureError) {
             FWLog.e(e, "Parse error while getting league information");
             syncResult.stats.numAuthExceptions++;
-        } catch (VolleyError e) {
+        } else if (e instanceof VolleyError) {
             FWLog.e(e, "Network error while getting league information");
             syncResult.stats.numIoExceptions++;
-        } catch (IOException e) {
+        } else {
             FWLog.e(e, "Error communicating with Play Services while updating league information");
             syncResult.stats.numIoExceptions++;
         }
-        FWLog.i("Sync complete");
     }
 
-    @Override
-    public void onSyncCanceled(@NonNull Thread thread) {
-        super.onSyncCanceled(thread);
-        Volley.getInstance(getContext()).getRequestQueue().cancelAll(SyncAdapter.class);
+    private static void addStats(SyncStats stats, SyncStats accountStats) {
+        stats.numUpdates += accountStats.numUpdates;
+        stats.numSkippedEntries += accountStats.numSkippedEntries;
+        stats.numParseExceptions += accountStats.numParseExceptions;
+        stats.numAuthExceptions += accountStats.numAuthExceptions;
+        stats.numIoExceptions += accountStats.numIoExceptions;
     }
 
-    private void onPerformSync(Account account, boolean isManualSync, SyncResult syncResult)
+    /**
+     * @param leagueBudget the maximum number of leagues to sync on a periodic sync, or 0 for no
+     *                     limit; see {@link LeagueShards}
+     * @return the periodic sync interval the account needs
+     */
+    private int onPerformSync(Account account, SyncCoordinator.Session session,
+            int leagueBudget, SyncResult syncResult)
             throws IOException, VolleyError, InterruptedException {
+        boolean isForced = session.isForced();
         long lastSyncTimeSec = TokenTable.getLastSyncTimeSec(getContext(), account);
         final League[] leagues;
-        if (shouldRefreshLeagues(lastSyncTimeSec, isManualSync)) {
+        if (shouldRefreshLeagues(lastSyncTimeSec, isForced)) {
             leagues = YahooClient.blockingGetLeagues(getContext(), SyncAdapter.class, account);
             LeagueTable.updateLeagues(getContext(), account, leagues);
             FWLog.d("Updated leagues, found %d", leagues.length);
+            LogoPrefetcher.prefetch(getContext(), account, leagues);
         } else {
             leagues = LeagueTable.getLeagues(getContext(), account);
         }
 
-        GoogleApiClient googleApiClient = new GoogleApiClient.Builder(getContext())
-                .addApi(Wearable.API)
-                .build();
         final int syncIntervalSec;
-        try {
-            if (leagues.length == 0) {
-                // We have no leagues; only sync to update leagues. We use half the full league
-                // refresh interval to avoid having a periodic sync happen just before the interval
-                // completes, causing us to miss a cycle.
-                FWLog.i("No leagues found");
-                syncIntervalSec = LEAGUE_REFRESH_PERIOD_SEC / 2;
+        if (leagues.length == 0) {
+            // We have no leagues; only sync to update leagues. We use half the full league refresh
+            // interval to avoid having a periodic sync happen just before the interval completes,
+            // causing us to miss a cycle.
+            FWLog.i("No leagues found");
+            syncIntervalSec = LEAGUE_REFRESH_PERIOD_SEC / 2;
+        } else {
+            long currentTimeSec = System.currentTimeMillis() / 1000;
+            boolean isInitialSync = lastSyncTimeSec == 0L;
+            boolean forceAll = isInitialSync;
+            // If the last sync of this account was interrupted, resume it with just the leagues
+            // that weren't done, unless this sync covers every league anyway.
+            SyncJournalTable.Generation interrupted = isForced ? null
+                    : SyncJournalTable.getUnfinishedGeneration(getContext(), account,
+                            currentTimeSec - MAX_RESUME_AGE_SEC);
+            League[] dueLeagues;
+            if (interrupted != null) {
+                List<League> pendingLeagues = new ArrayList<>();
+                for (League league : LeagueTable.getSyncableLeagues(
+                        getContext(), account, currentTimeSec, false, false)) {
+                    if (interrupted.pendingLeagueKeys.contains(league.league_key)) {
+                        pendingLeagues.add(league);
+                    }
+                }
+                dueLeagues = pendingLeagues.toArray(new League[pendingLeagues.size()]);
+                forceAll |= interrupted.forced;
+                FWLog.i("Resuming interrupted sync with %d leagues", dueLeagues.length);
             } else {
-                for (League league : leagues) {
-                    FWLog.d("Updating league %s", league);
-                    syncLeague(googleApiClient, account, league, lastSyncTimeSec, isManualSync);
-                    syncResult.stats.numUpdates++;
-                    FWLog.d("Update succeeded for %s", league);
+                // Manual and initial syncs cover every league; otherwise, leagues outside of an
+                // active scoring week are only synced when they're next due (see LeagueSchedule).
+                // Leagues which are cooling down after failures (see LeagueBackoff) are skipped,
+                // unless the user explicitly asked for a sync.
+                dueLeagues = LeagueTable.getSyncableLeagues(getContext(), account, currentTimeSec,
+                        !isForced && !isInitialSync, isForced);
+                if (!isForced && !isInitialSync && leagueBudget > 0) {
+                    // Only sync this cycle's shard of the due leagues. The rest stay due, and
+                    // are picked up by later syncs as they become the least recently synced.
+                    League[] shard = LeagueShards.select(dueLeagues,
+                            LeagueTable.getLastSyncTimesSec(getContext(), account),
+                            Preferences.getPinnedLeagueKeys(getContext(), account.name),
+                            leagueBudget, Preferences.getSyncIntervalSec(getContext()),
+                            currentTimeSec);
+                    int numLeftOut = dueLeagues.length - shard.length;
+                    if (numLeftOut > 0) {
+                        FWLog.d("Syncing %d of %d due leagues", shard.length, dueLeagues.length);
+                        syncResult.stats.numSkippedEntries += numLeftOut;
+                    }
+                    dueLeagues = shard;
                 }
-                syncIntervalSec = Preferences.getSyncIntervalSec(getContext());
             }
-        } finally {
-            googleApiClient.disconnect();
+            int numDeferred = 0;
+            if (dueLeagues.length == 0) {
+                FWLog.d("No leagues are due to be synced");
+            } else {
+                SyncJournalTable.startGeneration(getContext(), account, dueLeagues,
+                        forceAll || isForced, currentTimeSec);
+                WearableConnection wearableConnection =
+                        WearableConnection.getInstance(getContext());
+                GoogleApiClient googleApiClient = wearableConnection.blockingAcquire();
+                try {
+                    numDeferred = syncLeagues(googleApiClient, account, dueLeagues,
+                            isInitialSync, forceAll, session, syncResult);
+                } finally {
+                    wearableConnection.release();
+                }
+            }
+            SyncJournalTable.finishGeneration(getContext(), account);
+            if (numDeferred > 0) {
+                // Pick up the deferred leagues as soon as possible.
+                syncIntervalSec = Math.min(AdaptiveSyncInterval.MIN_SYNC_INTERVAL_SEC,
+                        Preferences.getSyncIntervalSec(getContext()));
+            } else {
+                // Poll more often while scores are changing, backing off to the user-selected
+                // interval while they're static.
+                syncIntervalSec = AdaptiveSyncInterval.getSyncIntervalSec(
+                        LeagueTable.getLastChangeTimeSec(getContext(), account),
+                        System.currentTimeMillis() / 1000,
+                        Preferences.getSyncIntervalSec(getContext()));
+            }
         }
-
-        TokenTable.setLastSyncTimeSec(getContext(), account, System.currentTimeMillis() / 1000);
-        setPeriodicSyncIntervalSec(account, syncIntervalSec);
+        return syncIntervalSec;
     }
 
-    private void syncLeague(GoogleApiClient googleApiClient, Account account, League league,
-            long lastSyncTimeSec, boolean isManualSync)
+    /**
+     * Sync each of the given leagues as a {@link SyncPipeline}.
+     *
+     * Scoreboards are fetched in batches of up to {@link YahooClient#MAX_LEAGUES_PER_REQUEST}
+     * leagues. As soon as a batch arrives, logos for its leagues are fetched and encoded, up to
+     * {@link #LEAGUE_SYNC_PARALLELISM} leagues at once, while leagues whose logos are ready are
+     * pushed to Wear one at a time. Leagues whose matchup is unchanged since the last push are
+     * skipped entirely, unless this is a manual or initial sync. On the initial sync, we then wait
+     * for the wear device to acknowledge every league; see {@link AckTracker}.
+     *
+     * Leagues are synced in {@link LeaguePriority} order, and any leagues which aren't reached, or
+     * whose scoreboards or logos are still being fetched, within {@link #SYNC_DEADLINE_MS} are
+     * deferred: they are marked as due for the next sync (see {@link LeagueTable#setDeferred}) and
+     * counted as skipped entries.
+     *
+     * A failure to fetch logos for, or find the matchup of, a single league only skips that
+     * league, which then cools down per {@link LeagueBackoff}. Other failures, such as failing to
+     * fetch scoreboards, authentication errors, or failing to push to Wear, affect every league;
+     * the first such failure aborts the remaining leagues and is rethrown. If the calling thread
+     * is interrupted (e.g. because the sync was canceled), all outstanding league syncs are
+     * interrupted as well.
+     *
+     * As each league is done, it is marked as such in the {@link SyncJournalTable}.
+     *
+     * @param isInitialSync whether this is the account's first sync, in which case we wait for
+     *                      the wear device to acknowledge every league
+     * @param forceAll whether to push every league even if unchanged, e.g. on the first sync (to
+     *                 cover the corner case of an uninstall and reinstall where the old data is
+     *                 still cached); leagues are also pushed if the session is forced
+     * @return the number of deferred leagues
+     */
+    private int syncLeagues(final GoogleApiClient googleApiClient, final Account account,
+            League[] leagues, boolean isInitialSync, final boolean forceAll,
+            final SyncCoordinator.Session session, SyncResult syncResult)
             throws IOException, VolleyError, InterruptedException {
-        Matchup matchup =
-                YahooClient.blockingGetMatchup(getContext(), SyncAdapter.class, account, league);
+        final long deadlineMs = SystemClock.elapsedRealtime() + SYNC_DEADLINE_MS;
+        final Map<String, Long> lastChangeTimesSec =
+                LeagueTable.getLastChangeTimesSec(getContext(), account);
+        // Errors for leagues whose scoreboard is in an unsupported format, keyed by league key.
+        // Filled in as batches are fetched, and read as their leagues are prepared.
+        final Map<String, ParseError> parseErrors = new ConcurrentHashMap<>();
+        // Matchups aren't known until they're fetched, so this only considers recent changes.
+        // Each batch is reordered with its fresh matchups once it arrives.
+        leagues = LeaguePriority.sort(leagues, Collections.<String, Matchup>emptyMap(),
+                lastChangeTimesSec, System.currentTimeMillis() / 1000);
+        final AckTracker ackTracker;
+        if (isInitialSync) {
+            ackTracker = new AckTracker(getContext());
+            ackTracker.register();
+        } else {
+            ackTracker = null;
+        }
+        try {
+            SyncPipeline<PreparedLeague> pipeline = new SyncPipeline<>(
+                    new SyncPipeline.Stages<PreparedLeague>() {
+                        @Override
+                        public Map<String, Matchup> fetch(League[] batch) throws Exception {
+                            try {
+                                MultiLeagueScoreboard scoreboard =
+                                        YahooClient.blockingGetMatchups(getContext(),
+                                                SyncAdapter.class, account, batch,
+                                                deadlineMs - SystemClock.elapsedRealtime());
+                                parseErrors.putAll(scoreboard.errors);
+                                return scoreboard.matchups;
+                            } catch (TimeoutError e) {
+                                if (SystemClock.elapsedRealtime() >= deadlineMs) {
+                                    // We ran out of time rather than the fetch failing.
+                                    FWLog.w("Sync deadline passed while fetching scoreboards");
+                                    return null;
+                                }
+                                throw e;
+                            }
+                        }
+
+                        @Override
+                        public League[] order(League[] batch, Map<String, Matchup> matchups) {
+                            return LeaguePriority.sort(batch, matchups, lastChangeTimesSec,
+                                    System.currentTimeMillis() / 1000);
+                        }
+
+                        @Override
+                        public PreparedLeague prepare(League league, Matchup matchup)
+                                throws Exception {
+                            boolean forceUpdate = forceAll || session.isForced();
+                            try {
+                                ParseError parseError = parseErrors.get(league.league_key);
+                                if (parseError != null) {
+                                    throw parseError;
+                                }
+                                PreparedLeague prepared = prepareLeague(
+                                        account, league, matchup, forceUpdate, deadlineMs);
+                                return prepared;
+                            } catch (AuthFailureError e) {
+                                // Affects every league, so abort the sync.
+                                throw e;
+                            } catch (TimeoutError e) {
+                                if (SystemClock.elapsedRealtime() >= deadlineMs) {
+                                    // We ran out of time rather than the league failing.
+                                    FWLog.w("Sync deadline passed while preparing %s", league);
+                                    throw new SyncPipeline.DeadlineExceededException();
+                                }
+                                onLeagueFailed(account, league, e);
+                                return null;
+                            } catch (VolleyError e) {
+                                // Skip just this league, so that the others can still sync.
+                                onLeagueFailed(account, league, e);
+                                return null;
+                            }
+                        }
+
+                        @Override
+                        public void push(PreparedLeague prepared) throws Exception {
+                            pushLeague(googleApiClient, account, prepared, ackTracker);
+                        }
+                    }, sLeaguePrepareExecutor, sLeaguePushExecutor, MAX_PREPARED_LEAGUES);
+            long startTimeMs = SystemClock.elapsedRealtime();
+            SyncPipeline.Result result;
+            try {
+                result = pipeline.run(leagues, YahooClient.MAX_LEAGUES_PER_REQUEST, deadlineMs);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof VolleyError) {
+                    throw (VolleyError) cause;
+                } else if (cause instanceof InterruptedException) {
+                    throw (InterruptedException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException("Unexpected league sync failure", cause);
+            }
+            FWLog.d("Synced %d leagues in %d ms", leagues.length,
+                    SystemClock.elapsedRealtime() - startTimeMs);
+            syncResult.stats.numUpdates += result.numPushed;
+            syncResult.stats.numSkippedEntries += leagues.length - result.numPushed;
+            if (!result.deferred.isEmpty()) {
+                FWLog.w("Sync deadline passed, deferring %d leagues", result.deferred.size());
+                for (League league : result.deferred) {
+                    LeagueTable.setDeferred(getContext(), account, league);
+                }
+            }
+
+            if (ackTracker != null) {
+                int numUnacked = ackTracker.awaitAll(googleApiClient, INITIAL_SYNC_TIMEOUT_MS,
+                        INITIAL_SYNC_PROBE_PERIOD_MS);
+                if (numUnacked > 0) {
+                    FWLog.e("Did not receive ACK from wear device for %d leagues, giving up.",
+                            numUnacked);
+                }
+            }
+            return result.deferred.size();
+        } finally {
+            if (ackTracker != null) {
+                ackTracker.unregister();
+            }
+        }
+    }
 
-        // Fetch the logos for each team. Note that Volley will use cached versions of the bitmaps
-        // if present and not expired.
-        RequestFuture<Bitmap> logoFuture = RequestFuture.newFuture();
-        RequestFuture<Bitmap> oppLogoFuture = RequestFuture.newFuture();
+    /**
+     * Prepare the given league to be pushed to Wear by loading or fetching its encoded logos.
+     *
+     * @return the prepared league, or null if its matchup is unchanged since the last push and
+     *         forceUpdate is false
+     */
+    @Nullable
+    private PreparedLeague prepareLeague(Account account, League league,
+            @Nullable Matchup matchup, boolean forceUpdate, long deadlineMs)
+            throws VolleyError, InterruptedException {
+        FWLog.d("Updating league %s", league);
+        if (matchup == null) {
+            // Not a ParseError, since the scoreboard may just be missing the user's matchup for
+            // now; see onLeagueFailed.
+            throw new VolleyError("No matchup found for league " + league.league_key);
+        }
+        MatchupArchiver.archive(getContext(), account, league, matchup);
+        String fingerprint = LeagueData.getFingerprint(matchup);
+        if (!forceUpdate && fingerprint.equals(
+                LeagueTable.getPushedFingerprint(getContext(), account, league))) {
+            FWLog.d("Matchup unchanged for %s, not updating Wear", league);
+            updateNextSyncTime(account, league, matchup);
+            return null;
+        }
+
+        // Use the encoded logos from the cache, which LogoPrefetcher normally fills in when the
+        // leagues are refreshed, and only fetch the ones that are missing. Note that Volley will
+        // use cached versions of the bitmaps if present and not expired.
         int logoSize = getContext().getResources().getDimensionPixelSize(R.dimen.logo_size);
-        ImageRequest logoReq = new ImageRequest(matchup.my_team.logo_url,
-                logoFuture, logoSize, logoSize, Bitmap.Config.ARGB_8888, logoFuture);
-        ImageRequest oppLogoReq = new ImageRequest(matchup.opponent_team.logo_url,
-                oppLogoFuture, logoSize, logoSize, Bitmap.Config.ARGB_8888, oppLogoFuture);
-        Volley.getInstance(getContext()).getRequestQueue().add(logoReq);
-        Volley.getInstance(getContext()).getRequestQueue().add(oppLogoReq);
-        Asset logo;
-        Asset oppLogo;
+        byte[] encodedLogo = LogoCache.get(getContext(), matchup.my_team.logo_url);
+        byte[] encodedOppLogo = LogoCache.get(getContext(), matchup.opponent_team.logo_url);
+        RequestFuture<Bitmap> logoFuture = encodedLogo != null ? null
+                : requestLogo(matchup.my_team.logo_url, logoSize);
+        RequestFuture<Bitmap> oppLogoFuture = encodedOppLogo != null ? null
+                : requestLogo(matchup.opponent_team.logo_url, logoSize);
         try {
-            logo = getLogoAssetForBitmap(logoFuture.get(), logoSize);
-            oppLogo = getLogoAssetForBitmap(oppLogoFuture.get(), logoSize);
+            if (logoFuture != null) {
+                encodedLogo = awaitLogo(matchup.my_team.logo_url, logoFuture, logoSize,
+                        deadlineMs);
+            }
+            if (oppLogoFuture != null) {
+                encodedOppLogo = awaitLogo(matchup.opponent_team.logo_url, oppLogoFuture,
+                        logoSize, deadlineMs);
+            }
+            return new PreparedLeague(league, matchup, fingerprint, encodedLogo, encodedOppLogo,
+                    forceUpdate);
         } catch (ExecutionException e) {
             throw (VolleyError) e.getCause();
+        } catch (TimeoutException e) {
+            if (logoFuture != null) {
+                logoFuture.cancel(true);
+            }
+            if (oppLogoFuture != null) {
+                oppLogoFuture.cancel(true);
+            }
+            throw new TimeoutError();
         }
+    }
 
-        // Push the updated scores to connected wearable devices.
-        if (!googleApiClient.isConnected() && !googleApiClient.blockingConnect(
-                Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS).isSuccess()) {
-            throw new IOException("Unable to connect to GoogleApiClient");
-        }
-        // Force an update for all manual syncs and the first sync (to cover the corner case of an
-        // uninstall and reinstall where the old data is still cached).
-        boolean isInitialSync = lastSyncTimeSec == 0L;
+    /** Start fetching a logo. Cancelling the returned future cancels the request. */
+    private RequestFuture<Bitmap> requestLogo(String logoUrl, int logoSize) {
+        RequestFuture<Bitmap> future = RequestFuture.newFuture();
+        ImageRequest request = new ImageRequest(logoUrl, future, logoSize, logoSize,
+                Bitmap.Config.ARGB_8888, future);
+        future.setRequest(request);
+        Volley.getInstance(getContext()).getImageRequestQueue().add(request);
+        return future;
+    }
 
-        if (!isInitialSync) {
-            sendUpdateToWear(googleApiClient, account, league, matchup, logo, oppLogo,
-                    isManualSync);
-        } else {
-            // It appears that on the initial sync, the first n updates get queued but never
-            // delivered, only for all of them to come at once after the n+1st. To work around this,
-            // repeatedly attempt to send updates every few seconds, until the wear device
-            // acknowledges the update.
-            final String path = LeagueData.getLeagueUri(account, league).getPath();
-            final CountDownLatch latch = new CountDownLatch(1);
-            IntentFilter filter = new IntentFilter(LocalBroadcasts.ACTION_ACK);
-            filter.addDataScheme("wear");
-            BroadcastReceiver receiver = new BroadcastReceiver() {
-                @Override
-                public void onReceive(Context context, Intent intent) {
-                    if (path.equals(intent.getData().getPath())) {
-                        FWLog.v("Received matching ACK from wear device for %s", path);
-                        latch.countDown();
-                    } else {
-                        FWLog.w("Unexpected ACK: %s", intent.getData().getPath());
-                    }
-                }
-            };
-            LocalBroadcastManager lbm = LocalBroadcastManager.getInstance(getContext());
-            lbm.registerReceiver(receiver, filter);
-            try {
-                for (int i = 0; i < INITIAL_SYNC_TRIES; i++) {
-                    sendUpdateToWear(
-                            googleApiClient, account, league, matchup, logo, oppLogo, true);
-                    if (latch.await(INITIAL_SYNC_PERIOD_MS, TimeUnit.MILLISECONDS)) {
-                        FWLog.v("ACK received after %d tries, sync successful", i);
-                        break;
-                    } else {
-                        FWLog.v("ACK not received after %d tries", i);
-                    }
-                }
-                if (latch.getCount() != 0) {
-                    FWLog.e("Did not receive ACK from wear device, giving up.");
-                }
-            } finally {
-                lbm.unregisterReceiver(receiver);
-            }
+    /** Wait for a logo started by {@link #requestLogo}, then encode and cache it. */
+    private byte[] awaitLogo(String logoUrl, RequestFuture<Bitmap> future, int logoSize,
+            long deadlineMs) throws ExecutionException, TimeoutException, InterruptedException {
+        Bitmap logo = future.get(deadlineMs - SystemClock.elapsedRealtime(), TimeUnit.MILLISECONDS);
+        byte[] encodedLogo = encodeLogo(logo, logoSize);
+        // Keep the encoded logo so that it needn't be fetched again, and so that the league can be
+        // replayed without the network; see ReplayService.
+        LogoCache.put(getContext(), logoUrl, encodedLogo);
+        return encodedLogo;
+    }
+
+    /** Push a prepared league to Wear, and record what was pushed. */
+    private void pushLeague(GoogleApiClient googleApiClient, Account account,
+            PreparedLeague prepared, @Nullable AckTracker ackTracker) throws IOException {
+        if (ackTracker != null) {
+            ackTracker.expect(LeagueData.getLeagueUri(account, prepared.league));
         }
+        sendUpdateToWear(googleApiClient, account, prepared.league, prepared.matchup,
+                Asset.createFromBytes(prepared.logo), Asset.createFromBytes(prepared.oppLogo),
+                prepared.forceUpdate);
+        LeagueTable.setPushedFingerprint(getContext(), account, prepared.league,
+                prepared.fingerprint);
+        LeagueTable.setPushedMatchup(getContext(), account, prepared.league, prepared.matchup);
+        updateNextSyncTime(account, prepared.league, prepared.matchup);
+        FWLog.d("Update succeeded for %s", prepared.league);
+    }
+
+    /**
+     * Record a successful sync of a league (whether or not it was pushed), scheduling its next
+     * sync, recording its last sync time and clearing any failures.
+     */
+    private void updateNextSyncTime(Account account, League league, Matchup matchup) {
+        long currentTimeSec = System.currentTimeMillis() / 1000;
+        LeagueTable.setNextSyncTimeSec(getContext(), account, league,
+                LeagueSchedule.getNextSyncTimeSec(matchup, currentTimeSec));
+        LeagueTable.setLastSyncTimeSec(getContext(), account, league, currentTimeSec);
+        LeagueTable.setFailureState(getContext(), account, league, 0, 0);
+        SyncJournalTable.markLeagueDone(getContext(), account, league);
+    }
+
+    /** Record a failure to sync a league, so that it is skipped until its cooldown expires. */
+    private void onLeagueFailed(Account account, League league, VolleyError error) {
+        SyncJournalTable.markLeagueDone(getContext(), account, league);
+        // A ParseError means the league's scoreboard is in an unsupported format, which isn't going
+        // to change on the next sync. Other failures, including a scoreboard which is missing the
+        // user's matchup, may well be transient.
+        boolean isPermanent = error instanceof ParseError;
+        int failureCount = LeagueTable.getFailureCount(getContext(), account, league) + 1;
+        long retryAfterSec = LeagueBackoff.getRetryAfterSec(
+                failureCount, isPermanent, System.currentTimeMillis() / 1000);
+        FWLog.e(error, "Failed to sync %s (%d consecutive failures), skipping until %d", league,
+                failureCount, retryAfterSec);
+        LeagueTable.setFailureState(getContext(), account, league, failureCount, retryAfterSec);
     }
 
-    private static void sendUpdateToWear(GoogleApiClient googleApiClient, Account account,
+    static void sendUpdateToWear(GoogleApiClient googleApiClient, Account account,
             League league, Matchup matchup, Asset logo, Asset oppLogo, boolean forceUpdate)
             throws IOException {
         PutDataRequest request = LeagueData.getUpdateRequest(account, league, matchup,
@@ -254,18 +958,23 @@ public class SyncAdapter extends AbstractThreadedSyncAdapter {
 
     @VisibleForTesting
     public static Asset getLogoAssetForBitmap(Bitmap bitmap, int size) {
+        return Asset.createFromBytes(encodeLogo(bitmap, size));
+    }
+
+    /** Encode a logo in the form it is pushed to Wear. */
+    static byte[] encodeLogo(Bitmap bitmap, int size) {
         // If the bitmap is less than the desired size, scale it up.
         if (bitmap.getWidth() < size) {
             bitmap = Bitmap.createScaledBitmap(bitmap, size, size, true);
         }
         ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
         bitmap.compress(Bitmap.CompressFormat.PNG, 100, byteStream);
-        return Asset.createFromBytes(byteStream.toByteArray());
+        return byteStream.toByteArray();
     }
 
-    private boolean shouldRefreshLeagues(long lastSyncTimeSec, boolean isManualSync) {
-        // Always refresh leagues on manual syncs.
-        if (isManualSync) {
+    private boolean shouldRefreshLeagues(long lastSyncTimeSec, boolean isForced) {
+        // Always refresh leagues on forced (e.g. manual) syncs.
+        if (isForced) {
             FWLog.d("Refreshing leagues because a manual sync was requested");
             return true;
         }
@@ -283,15 +992,31 @@ public class SyncAdapter extends AbstractThreadedSyncAdapter {
         return false;
     }
 
-    public static class SyncService extends Service {
-        private static SyncAdapter sSyncAdapter;
+    /** A league which is ready to be pushed to Wear. */
+    private static class PreparedLeague {
+        final League league;
+        final Matchup matchup;
+        final String fingerprint;
+        /** The encoded logos; see {@link #encodeLogo}. */
+        final byte[] logo;
+        final byte[] oppLogo;
+        final boolean forceUpdate;
 
+        PreparedLeague(League league, Matchup matchup, String fingerprint, byte[] logo,
+                byte[] oppLogo, boolean forceUpdate) {
+            this.league = league;
+            this.matchup = matchup;
+            this.fingerprint = fingerprint;
+            this.logo = logo;
+            this.oppLogo = oppLogo;
+            this.forceUpdate = forceUpdate;
+        }
+    }
+
+    public static class SyncService extends Service {
         @Override
         public IBinder onBind(Intent intent) {
-            if (sSyncAdapter == null) {
-                sSyncAdapter = new SyncAdapter(this);
-            }
-            return sSyncAdapter.getSyncAdapterBinder();
+            return getInstance(this).getSyncAdapterBinder();
         }
     }
 }
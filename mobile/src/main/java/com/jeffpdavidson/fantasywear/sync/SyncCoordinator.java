@@ -0,0 +1,211 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.accounts.Account;
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
+
+import com.jeffpdavidson.fantasywear.annotations.VisibleForTesting;
+import com.jeffpdavidson.fantasywear.api.model.League;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces overlapping sync requests into a single running session.
+ *
+ * The first request starts a {@link Session} and runs it. Requests which arrive while it is
+ * running attach to it instead of starting duplicate work. A running session has already picked
+ * which leagues to sync, and whether to refresh the list of leagues, so a forced request (e.g. a
+ * manual sync) which attaches to an unforced session is queued instead: once the running session
+ * finishes, {@link #finish} hands the runner a forced session to run next, which refreshes and
+ * pushes every league as a manual sync does.
+ *
+ * Requests to sync just a few leagues, e.g. from live mode or the wear device, are coordinated in
+ * the same way, so that they never run alongside a session which may be pushing the same leagues.
+ * If a session is running, the leagues are queued and synced by a session of their own once it
+ * finishes, unless a forced session will cover them anyway; see {@link #startOrAttachLeagues}.
+ *
+ * Periodic requests, of which the sync framework makes one per account, are also dropped if a
+ * session has only just finished; see {@link #startOrAttachPeriodic}.
+ */
+final class SyncCoordinator {
+    /** How long after a session ends a periodic request is still considered covered by it. */
+    @VisibleForTesting
+    static final long PERIODIC_COALESCE_WINDOW_MS = TimeUnit.MINUTES.toMillis(1);
+
+    /** A running sync session. */
+    static final class Session {
+        private final boolean mForced;
+        @Nullable private final Map<Account, List<League>> mLeagues;
+
+        private Session(boolean forced, @Nullable Map<Account, List<League>> leagues) {
+            mForced = forced;
+            mLeagues = leagues;
+        }
+
+        /** Whether the session's leagues should be pushed even if unchanged. */
+        boolean isForced() {
+            return mForced;
+        }
+
+        /**
+         * Get the leagues to sync, keyed by account, or null if the session is a regular sync of
+         * every account.
+         */
+        @Nullable
+        Map<Account, List<League>> getLeagues() {
+            return mLeagues;
+        }
+    }
+
+    /** The running session, if any. Guarded by this. */
+    private Session mSession;
+
+    /**
+     * Whether a forced request attached to the running session, or to one which was abandoned, and
+     * still needs a forced session of its own. Guarded by this.
+     */
+    private boolean mPendingForced;
+
+    /**
+     * Leagues whose sync was requested while a session was running, keyed by account and then by
+     * league key. Guarded by this.
+     */
+    private final Map<Account, Map<String, League>> mPendingLeagues = new LinkedHashMap<>();
+
+    /** Whether any of {@link #mPendingLeagues} was requested as forced. Guarded by this. */
+    private boolean mPendingLeaguesForced;
+
+    /**
+     * When the last session ended, in {@link SystemClock#elapsedRealtime} milliseconds, or -1 if
+     * none has. Guarded by this.
+     */
+    private long mLastEndTimeMs = -1;
+
+    /**
+     * Request a sync.
+     *
+     * @param forced whether leagues should be refreshed and pushed to Wear even if unchanged
+     * @return a new session which the caller must run and then {@link #finish}, or null if the
+     *         request was attached to the running session
+     */
+    @Nullable
+    synchronized Session startOrAttach(boolean forced) {
+        if (mSession == null) {
+            return startRegularSession(forced);
+        }
+        if (forced && (!mSession.isForced() || mSession.getLeagues() != null)) {
+            mPendingForced = true;
+        }
+        return null;
+    }
+
+    /**
+     * Request a sync of some of an account's leagues.
+     *
+     * If a session is running, the leagues are queued to be synced once it finishes instead. The
+     * request is dropped if a forced regular session is running or queued, since that pushes
+     * every league anyway.
+     *
+     * @param forced whether the leagues should be pushed to Wear even if unchanged
+     * @return a new session which the caller must run and then {@link #finish}, or null if the
+     *         request was attached to the running session
+     */
+    @Nullable
+    synchronized Session startOrAttachLeagues(Account account, League[] leagues, boolean forced) {
+        if (mSession == null && !mPendingForced) {
+            mSession = new Session(forced,
+                    Collections.singletonMap(account, Arrays.asList(leagues)));
+            return mSession;
+        } else if (mSession == null) {
+            return startRegularSession(false);
+        } else if (mPendingForced || (mSession.isForced() && mSession.getLeagues() == null)) {
+            return null;
+        }
+        Map<String, League> pendingLeagues = mPendingLeagues.get(account);
+        if (pendingLeagues == null) {
+            pendingLeagues = new LinkedHashMap<>();
+            mPendingLeagues.put(account, pendingLeagues);
+        }
+        for (League league : leagues) {
+            pendingLeagues.put(league.league_key, league);
+        }
+        mPendingLeaguesForced |= forced;
+        return null;
+    }
+
+    /**
+     * Request a periodic sync. This is like an unforced {@link #startOrAttach}, except that the
+     * request is also dropped if a session ended within {@link #PERIODIC_COALESCE_WINDOW_MS}. Each
+     * account has its own periodic sync, which the framework may run back to back rather than at
+     * the same time, and a session which just ended already covered every account.
+     */
+    @Nullable
+    synchronized Session startOrAttachPeriodic() {
+        if (mSession == null && !mPendingForced && mLastEndTimeMs >= 0
+                && SystemClock.elapsedRealtime() - mLastEndTimeMs < PERIODIC_COALESCE_WINDOW_MS) {
+            return null;
+        }
+        return startOrAttach(false);
+    }
+
+    /**
+     * Finish running a session.
+     *
+     * If any request was queued while the session ran, this returns a session for it which the
+     * caller must run and then finish in turn: a forced regular session if one was requested, or
+     * else a session for the queued leagues. Otherwise, the session ends and null is returned.
+     */
+    @Nullable
+    synchronized Session finish(Session session) {
+        if (mSession != session) {
+            return null;
+        }
+        if (mPendingForced) {
+            return startRegularSession(true);
+        }
+        if (!mPendingLeagues.isEmpty()) {
+            Map<Account, List<League>> leagues = new LinkedHashMap<>();
+            for (Map.Entry<Account, Map<String, League>> entry : mPendingLeagues.entrySet()) {
+                leagues.put(entry.getKey(), new ArrayList<>(entry.getValue().values()));
+            }
+            mSession = new Session(mPendingLeaguesForced, leagues);
+            mPendingLeagues.clear();
+            mPendingLeaguesForced = false;
+            return mSession;
+        }
+        abandon(session);
+        return null;
+    }
+
+    /**
+     * End a session without finishing it, e.g. because it failed. Queued requests are kept: a
+     * forced request makes the next session forced, and queued leagues are synced after the next
+     * session.
+     */
+    synchronized void abandon(Session session) {
+        if (mSession == session) {
+            mSession = null;
+            mLastEndTimeMs = SystemClock.elapsedRealtime();
+        }
+    }
+
+    /**
+     * Start a regular session, which is forced if requested or if a forced request was queued.
+     * Queued leagues are dropped if the session is forced, since it pushes every league anyway.
+     */
+    private Session startRegularSession(boolean forced) {
+        mSession = new Session(forced || mPendingForced, null);
+        mPendingForced = false;
+        if (mSession.isForced()) {
+            mPendingLeagues.clear();
+            mPendingLeaguesForced = false;
+        }
+        return mSession;
+    }
+}
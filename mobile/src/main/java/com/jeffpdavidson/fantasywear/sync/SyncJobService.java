@@ -0,0 +1,263 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.SyncResult;
+import android.os.PersistableBundle;
+
+import com.jeffpdavidson.fantasywear.log.FWLog;
+import com.jeffpdavidson.fantasywear.storage.Preferences;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alternative to the sync adapter framework which schedules syncs with {@link JobScheduler}, for
+ * users who choose it (see {@link Preferences#getUseJobScheduler}).
+ *
+ * Jobs run the same sync session as {@link SyncAdapter#onPerformSync}. The periodic and adaptive
+ * intervals are merged into a single pending job: every sync session reschedules it for the
+ * interval it needs, replacing the previous one, with some flex so that the system can batch it
+ * with other work and run it in Doze maintenance windows. Periodic syncs can be restricted to
+ * unmetered networks. Failed syncs are retried with exponential backoff. Since scheduling a job
+ * which is running stops it, requests for a job which is running are deferred until it finishes.
+ *
+ * The sync adapter framework backend also uses a one-off follow-up job for adaptive intervals
+ * shorter than the framework allows for periodic syncs; see {@link #scheduleFollowUpSync}.
+ */
+public class SyncJobService extends JobService {
+    private static final int JOB_ID_PERIODIC = 1;
+    private static final int JOB_ID_MANUAL = 2;
+    private static final int JOB_ID_EXPEDITED = 3;
+    private static final int JOB_ID_FOLLOW_UP = 4;
+
+    private static final String EXTRA_MANUAL = "manual";
+
+    private static final long INITIAL_BACKOFF_MS = TimeUnit.SECONDS.toMillis(30);
+
+    /** Fraction of the interval by which a periodic sync may be delayed. */
+    private static final double PERIODIC_FLEX = 0.5;
+
+    private static final ExecutorService sExecutor = Executors.newCachedThreadPool();
+
+    /**
+     * Running jobs, keyed by job ID. Guarded by SyncJobService.class, along with
+     * {@link #sDeferredIntervalSec}, {@link #sDeferredFollowUpDelaySec} and
+     * {@link #sDeferredRequests}.
+     */
+    private static final Map<Integer, Future<?>> sRunningJobs = new HashMap<>();
+
+    /**
+     * Interval requested while the periodic job was running, which is scheduled once it finishes,
+     * or null if none. Rescheduling a running job would stop it.
+     */
+    private static Integer sDeferredIntervalSec;
+
+    /**
+     * Delay requested while the follow-up job was running, which is scheduled once it finishes, or
+     * null if none.
+     */
+    private static Integer sDeferredFollowUpDelaySec;
+
+    /**
+     * IDs of manual and expedited sync jobs which were requested again while running, which are
+     * scheduled again once they finish. As with the periodic job, rescheduling would stop them.
+     */
+    private static final Set<Integer> sDeferredRequests = new HashSet<>();
+
+    /** Schedule the next periodic sync, replacing any pending one. */
+    static void schedulePeriodicSync(Context context, int intervalSec) {
+        synchronized (SyncJobService.class) {
+            if (sRunningJobs.containsKey(JOB_ID_PERIODIC)) {
+                sDeferredIntervalSec = intervalSec;
+                return;
+            }
+        }
+        FWLog.d("Scheduling periodic sync job in %d seconds", intervalSec);
+        getJobScheduler(context).schedule(buildDelayedJob(context, JOB_ID_PERIODIC, intervalSec));
+    }
+
+    /**
+     * Schedule a one-off sync after the given delay, replacing any pending one.
+     *
+     * This is for the sync adapter framework backend: since API 24, the framework raises the
+     * period of periodic syncs to at least 15 minutes, so a shorter adaptive interval is covered by
+     * this job instead; see {@link SyncAdapter#setPeriodicSyncIntervalSec}.
+     */
+    static void scheduleFollowUpSync(Context context, int delaySec) {
+        synchronized (SyncJobService.class) {
+            if (sRunningJobs.containsKey(JOB_ID_FOLLOW_UP)) {
+                sDeferredFollowUpDelaySec = delaySec;
+                return;
+            }
+        }
+        FWLog.d("Scheduling follow-up sync job in %d seconds", delaySec);
+        getJobScheduler(context).schedule(buildDelayedJob(context, JOB_ID_FOLLOW_UP, delaySec));
+    }
+
+    /** Cancel any pending follow-up sync; see {@link #scheduleFollowUpSync}. */
+    static void cancelFollowUpSync(Context context) {
+        synchronized (SyncJobService.class) {
+            if (sRunningJobs.containsKey(JOB_ID_FOLLOW_UP)) {
+                // Canceling would stop it; just don't schedule another once it finishes.
+                sDeferredFollowUpDelaySec = null;
+                return;
+            }
+        }
+        getJobScheduler(context).cancel(JOB_ID_FOLLOW_UP);
+    }
+
+    /**
+     * Build a job which runs a regular sync after the given delay, with some flex, subject to the
+     * user's network preference.
+     */
+    private static JobInfo buildDelayedJob(Context context, int jobId, int delaySec) {
+        long intervalMs = TimeUnit.SECONDS.toMillis(delaySec);
+        int networkType = Preferences.getSyncOnUnmeteredOnly(context)
+                ? JobInfo.NETWORK_TYPE_UNMETERED : JobInfo.NETWORK_TYPE_ANY;
+        return new JobInfo.Builder(jobId, getComponentName(context))
+                .setMinimumLatency(intervalMs)
+                .setOverrideDeadline(intervalMs + (long) (intervalMs * PERIODIC_FLEX))
+                .setRequiredNetworkType(networkType)
+                .setBackoffCriteria(INITIAL_BACKOFF_MS, JobInfo.BACKOFF_POLICY_EXPONENTIAL)
+                .setPersisted(true)
+                .build();
+    }
+
+    /**
+     * Request a sync as soon as a network is available.
+     *
+     * @param manual whether this is a manual sync, which pushes every league
+     */
+    static void requestSync(Context context, boolean manual) {
+        int jobId = manual ? JOB_ID_MANUAL : JOB_ID_EXPEDITED;
+        synchronized (SyncJobService.class) {
+            if (sRunningJobs.containsKey(jobId)) {
+                sDeferredRequests.add(jobId);
+                return;
+            }
+        }
+        PersistableBundle extras = new PersistableBundle();
+        extras.putBoolean(EXTRA_MANUAL, manual);
+        JobInfo job = new JobInfo.Builder(jobId, getComponentName(context))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
+                .setBackoffCriteria(INITIAL_BACKOFF_MS, JobInfo.BACKOFF_POLICY_EXPONENTIAL)
+                .setExtras(extras)
+                .build();
+        getJobScheduler(context).schedule(job);
+    }
+
+    /**
+     * Cancel the JobScheduler backend's sync jobs, e.g. when switching back to the sync adapter
+     * framework. The follow-up job, which the framework backend uses, is left alone.
+     */
+    static void cancelAll(Context context) {
+        synchronized (SyncJobService.class) {
+            sDeferredRequests.clear();
+        }
+        JobScheduler jobScheduler = getJobScheduler(context);
+        jobScheduler.cancel(JOB_ID_PERIODIC);
+        jobScheduler.cancel(JOB_ID_MANUAL);
+        jobScheduler.cancel(JOB_ID_EXPEDITED);
+    }
+
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        final boolean isManualSync = params.getExtras().getBoolean(EXTRA_MANUAL);
+        FWLog.d("Starting sync job %d", params.getJobId());
+        synchronized (SyncJobService.class) {
+            sRunningJobs.put(params.getJobId(), sExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    SyncResult syncResult = new SyncResult();
+                    SyncAdapter.getInstance(SyncJobService.this)
+                            .performSync(isManualSync, syncResult);
+                    onJobDone(params, syncResult);
+                }
+            }));
+        }
+        // The sync continues on the executor.
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        FWLog.w("Stopping sync job %d", params.getJobId());
+        Future<?> future;
+        synchronized (SyncJobService.class) {
+            future = sRunningJobs.remove(params.getJobId());
+            // Covered by the retry.
+            sDeferredRequests.remove(params.getJobId());
+        }
+        if (future != null) {
+            future.cancel(true);
+            SyncAdapter.getInstance(this).cancelRequests();
+        }
+        // Retry the sync later.
+        return true;
+    }
+
+    private void onJobDone(JobParameters params, SyncResult syncResult) {
+        Integer deferredIntervalSec = null;
+        boolean isRequestDeferred;
+        synchronized (SyncJobService.class) {
+            if (sRunningJobs.remove(params.getJobId()) == null) {
+                // The job was stopped.
+                return;
+            }
+            // Only deferred while the periodic job runs, so it's left for that job to apply even
+            // if another job finishes first.
+            if (params.getJobId() == JOB_ID_PERIODIC) {
+                deferredIntervalSec = sDeferredIntervalSec;
+                sDeferredIntervalSec = null;
+            } else if (params.getJobId() == JOB_ID_FOLLOW_UP) {
+                deferredIntervalSec = sDeferredFollowUpDelaySec;
+                sDeferredFollowUpDelaySec = null;
+            }
+            isRequestDeferred = sDeferredRequests.remove(params.getJobId());
+        }
+        if (deferredIntervalSec != null) {
+            // The session has already picked the next sync time, which supersedes any retry.
+            jobFinished(params, false);
+            if (params.getJobId() == JOB_ID_PERIODIC) {
+                schedulePeriodicSync(this, deferredIntervalSec);
+            } else {
+                scheduleFollowUpSync(this, deferredIntervalSec);
+            }
+        } else if (syncResult.hasSoftError()) {
+            // Retry with backoff.
+            jobFinished(params, true);
+        } else {
+            jobFinished(params, false);
+            if (params.getJobId() == JOB_ID_PERIODIC) {
+                // The session didn't schedule the next sync (e.g. because every account failed to
+                // authenticate), but periodic syncs must continue regardless.
+                schedulePeriodicSync(this, Preferences.getSyncIntervalSec(this));
+            }
+        }
+        if (isRequestDeferred) {
+            // Replaces any retry, since the sync runs again right away.
+            FWLog.d("Sync job %d was requested while running, scheduling it again",
+                    params.getJobId());
+            requestSync(this, params.getJobId() == JOB_ID_MANUAL);
+        }
+    }
+
+    private static ComponentName getComponentName(Context context) {
+        return new ComponentName(context, SyncJobService.class);
+    }
+
+    private static JobScheduler getJobScheduler(Context context) {
+        return (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+    }
+}
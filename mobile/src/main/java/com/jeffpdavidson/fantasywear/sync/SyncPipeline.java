@@ -0,0 +1,236 @@
+package com.jeffpdavidson.fantasywear.sync;
+
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
+
+import com.jeffpdavidson.fantasywear.api.model.League;
+import com.jeffpdavidson.fantasywear.api.model.Matchup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the sync for a set of leagues as a three-stage pipeline, so that work on different leagues
+ * overlaps:
+ *
+ * <ol>
+ *   <li>Fetch: matchups are fetched in batches on the calling thread.</li>
+ *   <li>Prepare: as soon as a batch arrives, each of its leagues is prepared (e.g. by fetching and
+ *       encoding logos) on a shared executor.</li>
+ *   <li>Push: prepared leagues are pushed one at a time, in order, on a push thread.</li>
+ * </ol>
+ *
+ * The prepare and push stages are connected by a bounded queue, so at most {@link #mMaxPending}
+ * leagues are prepared ahead of the push stage. The first failure in any stage aborts the rest of
+ * the pipeline.
+ *
+ * The pipeline also has a deadline. Once it passes, no further batches are fetched and no further
+ * leagues are prepared; those leagues are deferred. Leagues which were already prepared are still
+ * pushed, since that is comparatively cheap. A batch whose fetch, or a league whose preparation,
+ * runs out of time is deferred as well; see {@link Stages}.
+ *
+ * @param <P> the result of preparing a league
+ */
+final class SyncPipeline<P> {
+    /** How often the fetch stage checks whether the push stage failed while the queue is full. */
+    private static final long QUEUE_POLL_PERIOD_MS = 100;
+
+    /**
+     * Thrown by {@link Stages#prepare} when a league runs out of time, so that it is deferred
+     * rather than failing.
+     */
+    static final class DeadlineExceededException extends Exception {}
+
+    /** The work done by each stage of the pipeline. */
+    interface Stages<P> {
+        /**
+         * Fetch the matchups for a batch of leagues, keyed by league key.
+         *
+         * @return the matchups, or null if the fetch ran out of time, in which case the batch is
+         *         deferred
+         */
+        @Nullable
+        Map<String, Matchup> fetch(League[] leagues) throws Exception;
+
+        /**
+         * Order a fetched batch of leagues, which determines the order in which they are prepared
+         * and pushed.
+         */
+        League[] order(League[] leagues, Map<String, Matchup> matchups);
+
+        /**
+         * Prepare the given league to be pushed.
+         *
+         * @param matchup the league's fetched matchup, or null if none was found
+         * @return the prepared league, or null if there is nothing to push
+         * @throws DeadlineExceededException if the league ran out of time, in which case it is
+         *                                   deferred
+         */
+        @Nullable
+        P prepare(League league, @Nullable Matchup matchup) throws Exception;
+
+        /** Push a prepared league. */
+        void push(P prepared) throws Exception;
+    }
+
+    private final Stages<P> mStages;
+    private final ExecutorService mPrepareExecutor;
+    private final ExecutorService mPushExecutor;
+    private final int mMaxPending;
+
+    /**
+     * @param prepareExecutor executor for the prepare stage, which may be shared between pipelines
+     * @param pushExecutor executor for the push stage, which may be shared between pipelines
+     * @param maxPending maximum number of leagues to prepare ahead of the push stage
+     */
+    SyncPipeline(Stages<P> stages, ExecutorService prepareExecutor, ExecutorService pushExecutor,
+            int maxPending) {
+        mStages = stages;
+        mPrepareExecutor = prepareExecutor;
+        mPushExecutor = pushExecutor;
+        mMaxPending = maxPending;
+    }
+
+    /** The outcome of a pipeline run. */
+    static class Result {
+        /** The number of leagues which were pushed. */
+        final int numPushed;
+        /** The leagues which were not reached, or ran out of time, before the deadline. */
+        final List<League> deferred;
+
+        Result(int numPushed, List<League> deferred) {
+            this.numPushed = numPushed;
+            this.deferred = deferred;
+        }
+    }
+
+    /**
+     * Run the pipeline for the given leagues.
+     *
+     * Leagues which are neither pushed nor deferred had nothing to push.
+     *
+     * @param batchSize maximum number of leagues to fetch at once
+     * @param deadlineMs the deadline, in {@link SystemClock#elapsedRealtime} milliseconds
+     * @throws ExecutionException wrapping the first failure from any stage
+     * @throws InterruptedException if the calling thread is interrupted, in which case all
+     *                              outstanding work is interrupted as well
+     */
+    Result run(League[] leagues, int batchSize, long deadlineMs)
+            throws ExecutionException, InterruptedException {
+        final BlockingQueue<Future<P>> queue = new ArrayBlockingQueue<>(mMaxPending);
+        // Marks the end of the queue, once all leagues that will be prepared have been queued.
+        final Future<P> endOfQueue = new FutureTask<P>(new Runnable() {
+            @Override
+            public void run() {}
+        }, null);
+        List<Future<P>> prepareFutures = new ArrayList<>(leagues.length);
+        // Leagues deferred by the prepare stage, which runs on other threads.
+        final List<League> prepareDeferred = Collections.synchronizedList(new ArrayList<League>());
+        Future<Integer> pushFuture = mPushExecutor.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                int numPushed = 0;
+                Future<P> prepareFuture;
+                while ((prepareFuture = queue.take()) != endOfQueue) {
+                    P prepared;
+                    try {
+                        prepared = prepareFuture.get();
+                    } catch (ExecutionException e) {
+                        // Surface the prepare failure itself rather than a nested wrapper.
+                        throw asException(e.getCause());
+                    }
+                    if (prepared != null) {
+                        mStages.push(prepared);
+                        numPushed++;
+                    }
+                }
+                return numPushed;
+            }
+        });
+        try {
+            List<League> deferred = new ArrayList<>();
+            for (int start = 0; start < leagues.length; start += batchSize) {
+                League[] batch = Arrays.copyOfRange(
+                        leagues, start, Math.min(leagues.length, start + batchSize));
+                if (SystemClock.elapsedRealtime() >= deadlineMs) {
+                    deferred.addAll(Arrays.asList(batch));
+                    continue;
+                }
+                Map<String, Matchup> matchups;
+                try {
+                    matchups = mStages.fetch(batch);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new ExecutionException(e);
+                }
+                if (matchups == null) {
+                    deferred.addAll(Arrays.asList(batch));
+                    continue;
+                }
+                for (final League league : mStages.order(batch, matchups)) {
+                    if (SystemClock.elapsedRealtime() >= deadlineMs) {
+                        deferred.add(league);
+                        continue;
+                    }
+                    final Matchup matchup = matchups.get(league.league_key);
+                    Future<P> prepareFuture = mPrepareExecutor.submit(new Callable<P>() {
+                        @Override
+                        public P call() throws Exception {
+                            try {
+                                return mStages.prepare(league, matchup);
+                            } catch (DeadlineExceededException e) {
+                                prepareDeferred.add(league);
+                                return null;
+                            }
+                        }
+                    });
+                    prepareFutures.add(prepareFuture);
+                    enqueue(queue, prepareFuture, pushFuture);
+                }
+            }
+            enqueue(queue, endOfQueue, pushFuture);
+            // Every prepare is done once the push stage has taken them all.
+            int numPushed = pushFuture.get();
+            deferred.addAll(prepareDeferred);
+            return new Result(numPushed, deferred);
+        } finally {
+            // No-op for completed work; stops the rest if we failed or were interrupted.
+            pushFuture.cancel(true);
+            for (Future<P> prepareFuture : prepareFutures) {
+                prepareFuture.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Add a prepared league to the queue, blocking while the push stage is behind. Bails out if
+     * the push stage has failed, since it will never drain the queue.
+     */
+    private static <P> void enqueue(BlockingQueue<Future<P>> queue, Future<P> prepareFuture,
+            Future<Integer> pushFuture) throws ExecutionException, InterruptedException {
+        while (!queue.offer(prepareFuture, QUEUE_POLL_PERIOD_MS, TimeUnit.MILLISECONDS)) {
+            if (pushFuture.isDone()) {
+                pushFuture.get();
+            }
+        }
+    }
+
+    private static Exception asException(Throwable t) {
+        if (t instanceof Exception) {
+            return (Exception) t;
+        }
+        return new ExecutionException(t);
+    }
+}
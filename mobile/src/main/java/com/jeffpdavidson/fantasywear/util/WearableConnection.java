@@ -0,0 +1,120 @@
+package com.jeffpdavidson.fantasywear.util;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.android.gms.common.ConnectionResult;
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.wearable.Wearable;
+import com.jeffpdavidson.fantasywear.log.FWLog;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide, reference-counted connection to the Wearable API.
+ *
+ * Callers obtain the shared {@link GoogleApiClient} with {@link #acquire} or
+ * {@link #blockingAcquire}, and must call {@link #release} exactly once for each successful call
+ * when they are done with it. Once the last reference is released, the client is kept connected
+ * for {@link #IDLE_TIMEOUT_MS} so that back-to-back syncs don't each pay the cost of connecting.
+ */
+public final class WearableConnection {
+    private static final long IDLE_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(2);
+
+    /** Number of times to attempt to connect in {@link #blockingAcquire} before giving up. */
+    private static final int CONNECT_ATTEMPTS = 2;
+
+    private static volatile WearableConnection sInstance;
+
+    private final GoogleApiClient mGoogleApiClient;
+    private final Handler mHandler;
+    private int mRefCount;
+
+    private final Runnable mDisconnectRunnable = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (WearableConnection.this) {
+                if (mRefCount == 0) {
+                    FWLog.d("Disconnecting idle GoogleApiClient");
+                    mGoogleApiClient.disconnect();
+                }
+            }
+        }
+    };
+
+    private WearableConnection(Context context) {
+        mGoogleApiClient = new GoogleApiClient.Builder(context)
+                .addApi(Wearable.API)
+                .build();
+        mHandler = new Handler(Looper.getMainLooper());
+    }
+
+    public static WearableConnection getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (WearableConnection.class) {
+                if (sInstance == null) {
+                    sInstance = new WearableConnection(context.getApplicationContext());
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * Acquire the shared client, starting to connect it if needed, without blocking.
+     *
+     * API calls made on the client before it finishes connecting are queued until it connects.
+     */
+    public synchronized GoogleApiClient acquire() {
+        mRefCount++;
+        mHandler.removeCallbacks(mDisconnectRunnable);
+        if (!mGoogleApiClient.isConnected() && !mGoogleApiClient.isConnecting()) {
+            mGoogleApiClient.connect();
+        }
+        return mGoogleApiClient;
+    }
+
+    /**
+     * Acquire the shared client, blocking until it is connected.
+     *
+     * A failed connection attempt is retried before giving up. On failure, the reference is
+     * released before throwing, so the caller must not call {@link #release}.
+     */
+    public GoogleApiClient blockingAcquire() throws IOException {
+        Util.assertNotOnMainThread();
+        GoogleApiClient googleApiClient;
+        synchronized (this) {
+            mRefCount++;
+            mHandler.removeCallbacks(mDisconnectRunnable);
+            googleApiClient = mGoogleApiClient;
+        }
+        // Connect outside the lock, so that other callers aren't blocked while we wait. Concurrent
+        // callers share the same connection attempt.
+        ConnectionResult result = null;
+        for (int i = 0; i < CONNECT_ATTEMPTS && !googleApiClient.isConnected(); i++) {
+            result = googleApiClient.blockingConnect(
+                    Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS);
+            if (!result.isSuccess()) {
+                FWLog.w("Failed to connect to GoogleApiClient, attempt %d: %s", i, result);
+            }
+        }
+        if (!googleApiClient.isConnected()) {
+            release();
+            throw new IOException("Unable to connect to GoogleApiClient: " + result);
+        }
+        return googleApiClient;
+    }
+
+    /** Release a reference obtained with {@link #acquire} or {@link #blockingAcquire}. */
+    public synchronized void release() {
+        if (mRefCount <= 0) {
+            throw new IllegalStateException("release() called without a matching acquire()");
+        }
+        mRefCount--;
+        if (mRefCount == 0) {
+            mHandler.postDelayed(mDisconnectRunnable, IDLE_TIMEOUT_MS);
+        }
+    }
+}
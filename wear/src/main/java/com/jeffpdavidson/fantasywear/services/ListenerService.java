@@ -3,6 +3,7 @@ package com.jeffpdavidson.fantasywear.services;
 import android.app.Notification;
 import android.app.Notification.WearableExtender;
 import android.app.NotificationManager;
+import android.app.PendingIntent;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.graphics.BitmapShader;
@@ -14,6 +15,7 @@ import android.graphics.Paint;
 import android.graphics.PorterDuff;
 import android.graphics.RectF;
 import android.graphics.Shader;
+import android.net.Uri;
 import android.support.annotation.Nullable;
 
 import com.google.android.gms.common.ConnectionResult;
@@ -24,8 +26,12 @@ import com.google.android.gms.wearable.Asset;
 import com.google.android.gms.wearable.DataApi.GetFdForAssetResult;
 import com.google.android.gms.wearable.DataEvent;
 import com.google.android.gms.wearable.DataEventBuffer;
+import com.google.android.gms.wearable.DataItem;
+import com.google.android.gms.wearable.DataItemBuffer;
 import com.google.android.gms.wearable.DataMap;
 import com.google.android.gms.wearable.DataMapItem;
+import com.google.android.gms.wearable.MessageEvent;
+import com.google.android.gms.wearable.PutDataRequest;
 import com.google.android.gms.wearable.Wearable;
 import com.google.android.gms.wearable.WearableListenerService;
 import com.jeffpdavidson.fantasywear.R;
@@ -40,7 +46,12 @@ import java.io.UnsupportedEncodingException;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
-/** Wearable listener service to show notifications for score updates. */
+/**
+ * Wearable listener service to show notifications for score updates.
+ *
+ * Each notification has an action to refresh just its league; see {@link RequestSyncService}. Also
+ * answers {@link Paths#PROBE} requests from the host device for league data it has sent.
+ */
 public class ListenerService extends WearableListenerService {
     private static final int NOTIFICATION_ID = 1;
 
@@ -69,13 +80,8 @@ public class ListenerService extends WearableListenerService {
         List<DataEvent> events = FreezableUtils.freezeIterable(dataEvents);
         dataEvents.close();
 
-        if (!mGoogleApiClient.isConnected()) {
-            ConnectionResult result = mGoogleApiClient.blockingConnect(
-                    Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS);
-            if (!result.isSuccess()) {
-                FWLog.e("Failed to connect to GoogleApiClient");
-                return;
-            }
+        if (!connect()) {
+            return;
         }
 
         for (DataEvent event : events) {
@@ -84,56 +90,9 @@ public class ListenerService extends WearableListenerService {
                 switch (event.getType()) {
                     case DataEvent.TYPE_CHANGED:
                         FWLog.d("Got league change event, tag = %s", tag);
-                        // Generate the background image from the team logos.
-                        DataMap dataMap =
-                                DataMapItem.fromDataItem(event.getDataItem()).getDataMap();
-
-                        if (LeagueData.isManualSync(dataMap)) {
-                            // Send an ACK back to connected devices for manual syncs.
-                            try {
-                                MessageApiUtil.sendMessage(mGoogleApiClient, Paths.ACK,
-                                        event.getDataItem().getUri().toString().getBytes("UTF-8"));
-                            } catch (UnsupportedEncodingException e) {
-                                throw new IllegalStateException(
-                                        "UTF-8 must be a supported encoding", e);
-                            }
-                        }
-
-                        Asset logo = LeagueData.getLogo(dataMap);
-                        Asset oppLogo = LeagueData.getOpponentLogo(dataMap);
-                        Bitmap background = getBitmapForLogos(logo, oppLogo);
-                        if (background == null) {
+                        if (!onLeagueChanged(tag, event.getDataItem())) {
                             return;
                         }
-
-                        // Build a notification containing the score info.
-                        Matchup matchup = LeagueData.getMatchup(dataMap);
-                        String score = matchup.my_team.score;
-                        String opponentScore = matchup.opponent_team.score;
-                        String opponentName = matchup.opponent_team.name;
-                        Notification.Builder notificationBuilder = new Notification.Builder(this)
-                                .setSmallIcon(R.drawable.ic_launcher)
-                                .setContentTitle(
-                                        getString(R.string.score_title, score, opponentScore));
-                        float scoreValue = Float.parseFloat(score);
-                        float opponentScoreValue = Float.parseFloat(opponentScore);
-                        if (scoreValue == opponentScoreValue) {
-                            notificationBuilder.setContentText(
-                                    getString(R.string.score_tied_with, opponentName));
-                        } else if (scoreValue > opponentScoreValue) {
-                            notificationBuilder.setContentText(
-                                    getString(R.string.score_beating, opponentName));
-                        } else {
-                            notificationBuilder.setContentText(
-                                    getString(R.string.score_losing_to, opponentName));
-                        }
-                        notificationBuilder.extend(new WearableExtender()
-                                .setHintHideIcon(true)
-                                .setBackground(background));
-
-                        // Update the notification for this league on the device.
-                        mNotificationManager.notify(tag, NOTIFICATION_ID,
-                                notificationBuilder.build());
                         break;
                     case DataEvent.TYPE_DELETED:
                         FWLog.d("Got league deleted event, tag = %s", tag);
@@ -148,6 +107,120 @@ public class ListenerService extends WearableListenerService {
         }
     }
 
+    @Override
+    public void onMessageReceived(MessageEvent message) {
+        if (!Paths.PROBE.equals(message.getPath())) {
+            FWLog.e("Unknown message path: %s", message.getPath());
+            return;
+        }
+
+        Uri leagueUri;
+        try {
+            leagueUri = Uri.parse(new String(message.getData(), "UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 must be a supported encoding", e);
+        }
+        FWLog.d("Received a probe for URI %s", leagueUri);
+
+        if (!connect()) {
+            return;
+        }
+
+        // Look up the league's data item from any node, and process it as though it had just
+        // changed. This will ACK the probe if the data is present.
+        Uri dataItemUri = new Uri.Builder()
+                .scheme(PutDataRequest.WEAR_URI_SCHEME)
+                .path(leagueUri.getPath())
+                .build();
+        DataItemBuffer dataItems = Wearable.DataApi.getDataItems(mGoogleApiClient, dataItemUri)
+                .await(Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS);
+        try {
+            if (!dataItems.getStatus().isSuccess()) {
+                FWLog.e("Failed to get data items for probe, status = %s",
+                        dataItems.getStatus());
+                return;
+            }
+            for (DataItem dataItem : dataItems) {
+                String tag = LeagueData.getTagIfMatches(dataItem.getUri());
+                if (tag != null) {
+                    onLeagueChanged(tag, dataItem.freeze());
+                }
+            }
+        } finally {
+            dataItems.release();
+        }
+    }
+
+    private boolean connect() {
+        if (!mGoogleApiClient.isConnected()) {
+            ConnectionResult result = mGoogleApiClient.blockingConnect(
+                    Constants.GOOGLE_API_CLIENT_TIMEOUT_SEC, TimeUnit.SECONDS);
+            if (!result.isSuccess()) {
+                FWLog.e("Failed to connect to GoogleApiClient");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Show or update the notification for a league whose data item has changed.
+     *
+     * @return false if the notification could not be built
+     */
+    private boolean onLeagueChanged(String tag, DataItem dataItem) {
+        // Generate the background image from the team logos.
+        DataMap dataMap = DataMapItem.fromDataItem(dataItem).getDataMap();
+
+        if (LeagueData.isManualSync(dataMap)) {
+            // Send an ACK back to connected devices for manual syncs.
+            try {
+                MessageApiUtil.sendMessage(mGoogleApiClient, Paths.ACK,
+                        dataItem.getUri().toString().getBytes("UTF-8"));
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException("UTF-8 must be a supported encoding", e);
+            }
+        }
+
+        Asset logo = LeagueData.getLogo(dataMap);
+        Asset oppLogo = LeagueData.getOpponentLogo(dataMap);
+        Bitmap background = getBitmapForLogos(logo, oppLogo);
+        if (background == null) {
+            return false;
+        }
+
+        // Build a notification containing the score info.
+        Matchup matchup = LeagueData.getMatchup(dataMap);
+        String score = matchup.my_team.score;
+        String opponentScore = matchup.opponent_team.score;
+        String opponentName = matchup.opponent_team.name;
+        Notification.Builder notificationBuilder = new Notification.Builder(this)
+                .setSmallIcon(R.drawable.ic_launcher)
+                .setContentTitle(getString(R.string.score_title, score, opponentScore));
+        float scoreValue = Float.parseFloat(score);
+        float opponentScoreValue = Float.parseFloat(opponentScore);
+        if (scoreValue == opponentScoreValue) {
+            notificationBuilder.setContentText(getString(R.string.score_tied_with, opponentName));
+        } else if (scoreValue > opponentScoreValue) {
+            notificationBuilder.setContentText(getString(R.string.score_beating, opponentName));
+        } else {
+            notificationBuilder.setContentText(getString(R.string.score_losing_to, opponentName));
+        }
+        // Each league needs its own PendingIntent, which the data URI guarantees.
+        PendingIntent refreshIntent = PendingIntent.getService(this, 0,
+                RequestSyncService.makeLeagueIntent(this, dataItem.getUri()),
+                PendingIntent.FLAG_UPDATE_CURRENT);
+        notificationBuilder.extend(new WearableExtender()
+                .setHintHideIcon(true)
+                .setBackground(background)
+                .addAction(new Notification.Action.Builder(android.R.drawable.ic_popup_sync,
+                        getString(R.string.refresh), refreshIntent).build()));
+
+        // Update the notification for this league on the device.
+        mNotificationManager.notify(tag, NOTIFICATION_ID, notificationBuilder.build());
+        return true;
+    }
+
     @Nullable
     private Bitmap getBitmapForLogos(Asset logoAsset, Asset oppLogoAsset) {
         PendingResult<GetFdForAssetResult> logoPendingResult =
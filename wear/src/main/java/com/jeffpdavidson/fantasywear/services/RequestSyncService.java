@@ -3,13 +3,19 @@ package com.jeffpdavidson.fantasywear.services;
 import android.app.IntentService;
 import android.content.Context;
 import android.content.Intent;
+import android.net.Uri;
 
 import com.google.android.gms.common.api.GoogleApiClient;
 import com.google.android.gms.wearable.Wearable;
 import com.jeffpdavidson.fantasywear.protocol.Paths;
 import com.jeffpdavidson.fantasywear.util.MessageApiUtil;
 
-/** Service to request a manual sync of all accounts. */
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Service to ask the host device to push all league data again, e.g. to restore notifications, or
+ * to refresh a single league.
+ */
 public class RequestSyncService extends IntentService {
     private static final String TAG = "RequestSyncService";
 
@@ -19,6 +25,16 @@ public class RequestSyncService extends IntentService {
         context.startService(new Intent(context, RequestSyncService.class));
     }
 
+    /**
+     * Make an Intent which requests a refresh of a single league from the host device which sent
+     * it.
+     *
+     * @param dataItemUri the URI of the league's data item
+     */
+    public static Intent makeLeagueIntent(Context context, Uri dataItemUri) {
+        return new Intent(context, RequestSyncService.class).setData(dataItemUri);
+    }
+
     public RequestSyncService() {
         super(TAG);
         setIntentRedelivery(true);
@@ -41,6 +57,18 @@ public class RequestSyncService extends IntentService {
 
     @Override
     protected void onHandleIntent(Intent intent) {
-        MessageApiUtil.sendMessage(mGoogleApiClient, Paths.SYNC, new byte[0]);
+        Uri dataItemUri = intent.getData();
+        if (dataItemUri == null) {
+            MessageApiUtil.sendMessage(mGoogleApiClient, Paths.SYNC, new byte[0]);
+            return;
+        }
+        // The data item's host is the node which pushed it, so only that node needs to refresh.
+        byte[] data;
+        try {
+            data = dataItemUri.getPath().getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 must be a supported encoding", e);
+        }
+        MessageApiUtil.sendMessage(mGoogleApiClient, dataItemUri.getHost(), Paths.SYNC, data);
     }
 }